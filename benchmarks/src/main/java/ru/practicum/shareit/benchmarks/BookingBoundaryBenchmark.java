@@ -0,0 +1,116 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.ItemBookingSummaryService;
+import ru.practicum.shareit.booking.model.BookingBoundary;
+import ru.practicum.shareit.booking.model.ShortBookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.OwnerItemDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last and next approved booking of every item of an owner with 1k items against embedded H2:
+ * the windowed query in one round-trip against two ordered single-row lookups per item,
+ * the maintained item booking summary, and the whole listing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingBoundaryBenchmark {
+    private static final long OWNER_ID = 1L;
+    private static final String BOUNDARY = "SELECT id, start_date FROM bookings "
+            + "WHERE item_id = ? AND status = 'APPROVED' AND start_date %s ? ORDER BY start_date %s, id DESC LIMIT 1";
+
+    @Param({"10"})
+    private int owners;
+
+    @Param({"1000"})
+    private int itemsPerOwner;
+
+    @Param({"10"})
+    private int bookingsPerItem;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private BookingRepository bookingRepository;
+    private ItemBookingSummaryService itemBookingSummaryService;
+    private ItemService itemService;
+    private ItemMapper itemMapper;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        new DataGenerator(jdbcTemplate).generate(owners, owners * 10, itemsPerOwner, bookingsPerItem, 2);
+        itemBookingSummaryService = context.getBean(ItemBookingSummaryService.class);
+        itemBookingSummaryService.rebuild();
+        bookingRepository = context.getBean(BookingRepository.class);
+        itemService = context.getBean(ItemService.class);
+        itemMapper = context.getBean(ItemMapper.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingBoundary> windowed() {
+        return bookingRepository.findApprovedBoundaries(OWNER_ID, 1, itemsPerOwner, LocalDateTime.now());
+    }
+
+    @Benchmark
+    public Map<Boolean, Map<Long, ShortBookingView>> summary() {
+        return itemBookingSummaryService.find(OWNER_ID, 1, itemsPerOwner);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> perItem() {
+        LocalDateTime now = LocalDateTime.now();
+        String last = String.format(BOUNDARY, "<=", "DESC");
+        String next = String.format(BOUNDARY, ">", "ASC");
+        List<Map<String, Object>> rows = new ArrayList<>(itemsPerOwner * 2);
+        for (long itemId = 1; itemId <= itemsPerOwner; itemId++) {
+            rows.addAll(jdbcTemplate.queryForList(last, itemId, now));
+            rows.addAll(jdbcTemplate.queryForList(next, itemId, now));
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public List<OwnerItemDto> ownerItemViews() {
+        return itemService.getOwnerItemViews(OWNER_ID, null, PageRequest.of(0, itemsPerOwner))
+                .map(itemMapper::toDtoOwner)
+                .getContent();
+    }
+}
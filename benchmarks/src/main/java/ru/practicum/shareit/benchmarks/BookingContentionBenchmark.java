@@ -0,0 +1,127 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exception.NotAvailableException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many bookers booking a few hot items of one owner against embedded H2, every booking approved right away:
+ * approvals of an item are serialized by its lock, overlapping requests are turned away on creation once
+ * the calendar of the item fills up. The counters show how the attempts ended.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BookingContentionBenchmark {
+    private static final int CALENDAR_DAYS = 3650;
+
+    @Param({"1", "100"})
+    private int items;
+
+    @Param({"1000"})
+    private int bookers;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private long ownerId;
+    private long firstItemId;
+    private long firstBookerId;
+    private LocalDateTime from;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                .run();
+        bookingService = context.getBean(BookingService.class);
+        UserService userService = context.getBean(UserService.class);
+        ItemService itemService = context.getBean(ItemService.class);
+        ownerId = userService.add(User.builder().name("owner").email("owner@shareit.test").build()).getId();
+        for (int i = 0; i < items; i++) {
+            Item item = itemService.add(Item.builder().name("hot item " + i).description("popular")
+                    .available(true).build(), ownerId);
+            firstItemId = i == 0 ? item.getId() : firstItemId;
+        }
+        for (int i = 0; i < bookers; i++) {
+            User booker = userService.add(User.builder().name("booker " + i).email("booker" + i + "@shareit.test")
+                    .build());
+            firstBookerId = i == 0 ? booker.getId() : firstBookerId;
+        }
+        from = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Booking bookAndApprove(Outcome outcome) {
+        SplittableRandom random = outcome.random;
+        LocalDateTime start = from.plusHours(random.nextInt(CALENDAR_DAYS * 24));
+        Booking booking;
+        try {
+            booking = bookingService.createBooking(Booking.builder().start(start)
+                            .end(start.plusDays(1 + random.nextInt(3))).build(),
+                    firstBookerId + random.nextInt(bookers), firstItemId + random.nextInt(items));
+        } catch (NotAvailableException e) {
+            outcome.rejectedOnCreate++;
+            return null;
+        }
+        try {
+            booking = bookingService.updateBookingStatus(booking.getId(), true, ownerId);
+            outcome.approved++;
+            return booking;
+        } catch (NotAvailableException e) {
+            outcome.rejectedOnApprove++;
+            return booking;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long approved;
+        public long rejectedOnCreate;
+        public long rejectedOnApprove;
+        private SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            random = new SplittableRandom(Thread.currentThread().getId());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.BookingImportService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * One import of a million bookings with the JDBC batch size of the server and with batching turned off,
+ * which sends a statement per booking the way identity ids forced before. Embedded H2 answers a statement
+ * without a round-trip, so the same H2 is also reached over TCP, as a database server would be.
+ * Every item gets one approved booking a day, so none of them overlap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class BookingImportBenchmark {
+    @Param({"1", "50"})
+    private int batchSize;
+
+    @Param({"embedded", "tcp"})
+    private String connection;
+
+    @Param({"1000000"})
+    private int bookings;
+
+    @Param({"1000"})
+    private int items;
+
+    @Param({"10000"})
+    private int bookers;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private BookingImportService importService;
+    private JdbcTemplate jdbcTemplate;
+    private LocalDateTime origin;
+
+    @Setup
+    public void setUp() throws SQLException {
+        List<String> args = new ArrayList<>();
+        args.add("--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        if (connection.equals("tcp")) {
+            server = Server.createTcpServer("-ifNotExists").start();
+            args.add("--spring.datasource.url=jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:shareit");
+        }
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                .run(args.toArray(String[]::new));
+        importService = context.getBean(BookingImportService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        new DataGenerator(jdbcTemplate).generate(1, bookers, items, 0, 0);
+        origin = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minusDays(bookings / items / 2);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearBookings() {
+        jdbcTemplate.execute("TRUNCATE TABLE bookings");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    public long importBookings() {
+        SplittableRandom random = new SplittableRandom(bookings);
+        return importService.importBookings(LongStream.range(0, bookings)
+                .mapToObj(n -> {
+                    LocalDateTime start = origin.plusDays(n / items);
+                    return Booking.builder()
+                            .status(BookingStatus.APPROVED)
+                            .item(Item.builder().id(1 + n % items).build())
+                            .booker(User.builder().id(2 + random.nextInt(bookers)).build())
+                            .owner(User.builder().id(1).build())
+                            .start(start)
+                            .end(start.plusHours(12))
+                            .build();
+                }));
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.model.BookingView;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page and total count of the booking listings in every state against embedded H2, sampled so that
+ * JMH reports percentiles: the p99 of a state shows whether its query stays on the owner and booker indexes.
+ * Owner 1 has a hundred times the bookings of the first booker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingStateBenchmark {
+    private static final long OWNER_ID = 1L;
+
+    @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    private BookingState state;
+
+    @Param({"20"})
+    private int size;
+
+    @Param({"100"})
+    private int owners;
+
+    @Param({"100"})
+    private int itemsPerOwner;
+
+    @Param({"100"})
+    private int bookingsPerItem;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private long bookerId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                .run();
+        new DataGenerator(context.getBean(JdbcTemplate.class))
+                .generate(owners, owners * 10, itemsPerOwner, bookingsPerItem, 0);
+        bookingService = context.getBean(BookingService.class);
+        bookerId = owners + 1L;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingView> ownerBookings() {
+        return bookingService.getOwnerBookingViews(OWNER_ID, state, null, PageRequest.of(0, size)).getContent();
+    }
+
+    @Benchmark
+    public List<BookingView> bookerBookings() {
+        return bookingService.getBookerBookingViews(bookerId, state, null, PageRequest.of(0, size)).getContent();
+    }
+
+    @Benchmark
+    public long ownerBookingCount() {
+        return bookingService.countOwnerBookings(OWNER_ID, state);
+    }
+}
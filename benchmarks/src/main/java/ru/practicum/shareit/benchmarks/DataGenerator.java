@@ -0,0 +1,190 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Scaled-up {@code TestDataInitializer}: owners with items, bookings of other users and comments,
+ * written in JDBC batches with explicit ids. Users 1..owners own the items, the rest only book and comment.
+ */
+public class DataGenerator {
+    private static final int BATCH = 1000;
+    private static final BookingStatus[] STATUSES = {BookingStatus.APPROVED, BookingStatus.APPROVED,
+            BookingStatus.WAITING, BookingStatus.REJECTED};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Random random = new Random(42);
+    private final LocalDateTime now = LocalDateTime.now();
+    private final LocalDate origin = now.toLocalDate().minusDays(400);
+    private final Map<Long, BitSet> approvedDays = new HashMap<>();
+
+    public DataGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void generate(int owners, int bookers, int itemsPerOwner, int bookingsPerItem, int commentsPerItem) {
+        int users = owners + bookers;
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= users; id++) {
+            rows.add(new Object[]{id, "user " + id, "user" + id + "@shareit.test"});
+        }
+        insert("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", rows);
+
+        rows.clear();
+        long itemId = 0;
+        for (long owner = 1; owner <= owners; owner++) {
+            for (int i = 0; i < itemsPerOwner; i++) {
+                itemId++;
+                rows.add(new Object[]{itemId, owner, "item " + itemId, "description of item " + itemId, true});
+            }
+        }
+        insert("INSERT INTO items (id, owner_id, name, description, is_available) VALUES (?, ?, ?, ?, ?)", rows);
+
+        List<Object[]> bookings = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        for (long item = 1; item <= itemId; item++) {
+            long owner = (item - 1) / itemsPerOwner + 1;
+            for (int i = 0; i < bookingsPerItem; i++) {
+                LocalDateTime start = now.plusDays(random.nextInt(120) - 60L).plusHours(random.nextInt(24));
+                LocalDateTime end = start.plusDays(1 + random.nextInt(3));
+                BookingStatus status = approveIfFree(STATUSES[random.nextInt(STATUSES.length)], item, start, end);
+                bookings.add(new Object[]{bookings.size() + 1L, Timestamp.valueOf(start), Timestamp.valueOf(end),
+                        status.name(), booker(owners, bookers), item, owner});
+            }
+            for (int i = 0; i < commentsPerItem; i++) {
+                comments.add(new Object[]{comments.size() + 1L, "comment on item " + item, booker(owners, bookers),
+                        item, Timestamp.valueOf(now.minusDays(random.nextInt(60)))});
+            }
+        }
+        insert("INSERT INTO bookings (id, start_date, end_date, status, booker_id, item_id, owner_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", bookings);
+        insert("INSERT INTO comments (id, text, author_id, item_id, created) VALUES (?, ?, ?, ?, ?)", comments);
+
+        restartSequence("users", users);
+        restartSequence("items", itemId);
+        restartSequence("bookings", bookings.size());
+        restartSequence("comments", comments.size());
+    }
+
+    /**
+     * Data set of the load suite: item owners, booked items and commented items follow the Zipfian
+     * popularity of the population. Rows are streamed in batches, so the volume is bounded by the database only.
+     */
+    public void generate(Population population, long bookings, long comments) {
+        SplittableRandom random = new SplittableRandom(42);
+        Batch users = new Batch("INSERT INTO users (id, name, email) VALUES (?, ?, ?)");
+        for (long id = 1; id <= population.getUsers(); id++) {
+            users.add(id, "user " + id, "user" + id + "@shareit.test");
+        }
+        users.flush();
+
+        Batch items = new Batch("INSERT INTO items (id, owner_id, name, description, is_available) "
+                + "VALUES (?, ?, ?, ?, ?)");
+        for (long id = 1; id <= population.getItems(); id++) {
+            items.add(id, population.ownerOf(id), population.itemName(id), population.itemDescription(id), true);
+        }
+        items.flush();
+
+        Batch bookingRows = new Batch("INSERT INTO bookings (id, start_date, end_date, status, booker_id, item_id, "
+                + "owner_id) VALUES (?, ?, ?, ?, ?, ?, ?)");
+        for (long id = 1; id <= bookings; id++) {
+            long item = population.popularItem(random);
+            long owner = population.ownerOf(item);
+            LocalDateTime start = now.minusDays(365).plusMinutes(random.nextLong(545L * 24 * 60));
+            BookingStatus status = start.isBefore(now)
+                    ? (random.nextInt(10) == 0 ? BookingStatus.REJECTED : BookingStatus.APPROVED)
+                    : STATUSES[random.nextInt(STATUSES.length)];
+            LocalDateTime end = start.plusDays(1 + random.nextInt(7));
+            bookingRows.add(id, Timestamp.valueOf(start), Timestamp.valueOf(end),
+                    approveIfFree(status, item, start, end).name(), population.userOtherThan(owner, random), item,
+                    owner);
+        }
+        bookingRows.flush();
+
+        Batch commentRows = new Batch("INSERT INTO comments (id, text, author_id, item_id, created) "
+                + "VALUES (?, ?, ?, ?, ?)");
+        for (long id = 1; id <= comments; id++) {
+            long item = population.popularItem(random);
+            commentRows.add(id, "comment " + id + " on " + population.itemName(item),
+                    population.userOtherThan(population.ownerOf(item), random), item,
+                    Timestamp.valueOf(now.minusMinutes(random.nextLong(365L * 24 * 60))));
+        }
+        commentRows.flush();
+
+        restartSequence("users", population.getUsers());
+        restartSequence("items", population.getItems());
+        restartSequence("bookings", bookings);
+        restartSequence("comments", comments);
+    }
+
+    /**
+     * Approved bookings of an item never overlap, the server and the Postgres constraint enforce it.
+     * A drawn approval is kept only when none of its days is taken by another approved booking of the item,
+     * otherwise the booking is rejected. Days are coarser than the rule, so there are some needless rejections.
+     */
+    private BookingStatus approveIfFree(BookingStatus status, long item, LocalDateTime start, LocalDateTime end) {
+        if (status != BookingStatus.APPROVED) {
+            return status;
+        }
+        int from = (int) ChronoUnit.DAYS.between(origin, start.toLocalDate());
+        int to = (int) ChronoUnit.DAYS.between(origin, end.toLocalDate()) + 1;
+        BitSet days = approvedDays.computeIfAbsent(item, key -> new BitSet());
+        if (days.get(from, to).isEmpty()) {
+            days.set(from, to);
+            return BookingStatus.APPROVED;
+        }
+        return BookingStatus.REJECTED;
+    }
+
+    private long booker(int owners, int bookers) {
+        return owners + 1L + random.nextInt(bookers);
+    }
+
+    private void insert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH, rows.size())));
+        }
+    }
+
+    private final class Batch {
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>(BATCH);
+
+        private Batch(String sql) {
+            this.sql = sql;
+        }
+
+        private void add(Object... row) {
+            rows.add(row);
+            if (rows.size() == BATCH) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+    }
+
+    /**
+     * Ids the server takes from the sequence of the table come after the generated rows.
+     */
+    private void restartSequence(String table, long lastId) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + table + "_seq RESTART WITH " + (lastId + 1));
+    }
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.mapper.BookingMapperImpl;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ShortBookingView;
+import ru.practicum.shareit.item.ItemMapperImpl;
+import ru.practicum.shareit.item.model.CommentView;
+import ru.practicum.shareit.item.model.ExtendItem;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserMapperImpl;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory entities for the mapper and JSON benchmarks, shaped like the rows of {@link DataGenerator}.
+ */
+final class Fixtures {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private Fixtures() {
+    }
+
+    /**
+     * The generated MapStruct mappers wired the way the server wires them.
+     */
+    static AnnotationConfigApplicationContext mappers() {
+        return new AnnotationConfigApplicationContext(BookingMapperImpl.class, ItemMapperImpl.class,
+                UserMapperImpl.class);
+    }
+
+    static List<Booking> bookings(int count) {
+        User owner = user(1);
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            bookings.add(booking(i, item(i, owner), user(1000 + i), NOW.plusDays(i)));
+        }
+        return bookings;
+    }
+
+    static List<ExtendItem> extendItems(int count, int commentsPerItem) {
+        User owner = user(1);
+        List<ExtendItem> items = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Item item = item(i, owner);
+            List<CommentView> comments = new ArrayList<>(commentsPerItem);
+            for (int c = 1; c <= commentsPerItem; c++) {
+                comments.add(new CommentView((long) i * commentsPerItem + c, i, "comment on item " + i,
+                        user(1000 + c).getName(), NOW.minusDays(c)));
+            }
+            items.add(new ExtendItem(item)
+                    .setLastBooking(new ShortBookingView(2L * i, i, NOW.minusDays(2), NOW.minusDays(1), 1000L + i))
+                    .setNextBooking(new ShortBookingView(2L * i + 1, i, NOW.plusDays(2), NOW.plusDays(3), 2000L + i))
+                    .setComments(comments));
+        }
+        return items;
+    }
+
+    private static User user(long id) {
+        return User.builder().id(id).name("user " + id).email("user" + id + "@shareit.test").build();
+    }
+
+    private static Item item(long id, User owner) {
+        return Item.builder()
+                .id(id)
+                .name("item " + id)
+                .description("description of item " + id)
+                .available(true)
+                .owner(owner).build();
+    }
+
+    private static Booking booking(long id, Item item, User booker, LocalDateTime start) {
+        return Booking.builder()
+                .id(id)
+                .item(item)
+                .booker(booker)
+                .owner(item.getOwner())
+                .status(BookingStatus.APPROVED)
+                .start(start)
+                .end(start.plusDays(1)).build();
+    }
+}
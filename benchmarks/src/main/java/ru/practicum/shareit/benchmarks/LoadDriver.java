@@ -0,0 +1,269 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load against the gateway: each worker sends the next request of the mix as soon as the previous one
+ * has been answered. Latency is recorded per endpoint after the warmup; the report has throughput, error count
+ * and percentiles per endpoint, plus an HdrHistogram percentile distribution file for each.
+ * Being closed-loop, it does not correct for coordinated omission: a stall shows up as lower throughput
+ * rather than as queueing latency.
+ * <pre>
+ * --gateway=http://localhost:8080 --concurrency=64 --warmup=30s --duration=120s --out=load/results
+ * </pre>
+ * and the population options the data set was generated with, see {@link SyntheticData}.
+ */
+public final class LoadDriver {
+    private static final String USER_ID = "X-Sharer-User-Id";
+    private static final String[] STATES = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"};
+    private static final Pattern ID = Pattern.compile("^\\{\"id\":(\\d+)");
+    private static final Pattern ITEM_ID = Pattern.compile("\"item\":\\{\"id\":(\\d+)");
+
+    private final String gateway;
+    private final Population population;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final List<Request> mix = new ArrayList<>();
+    private final Queue<long[]> waiting = new ConcurrentLinkedQueue<>();
+    private volatile long recordFrom;
+    private volatile long stopAt;
+
+    private LoadDriver(String gateway, Population population) {
+        this.gateway = gateway;
+        this.population = population;
+        add("GET /items/search", 20, this::search);
+        add("GET /items/search?start&end", 5, this::searchFree);
+        add("GET /items", 15, this::ownerItems);
+        add("GET /items/{id}", 15, this::item);
+        add("GET /bookings", 15, this::bookerBookings);
+        add("GET /bookings/owner", 15, this::ownerBookings);
+        add("POST /bookings", 10, this::createBooking);
+        add("PATCH /bookings/{id}", 5, this::approveBooking);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        LoadDriver driver = new LoadDriver(options.get("gateway", "http://localhost:8080"), options.population());
+        driver.run((int) options.getLong("concurrency", 64), options.getDuration("warmup", "30s"),
+                options.getDuration("duration", "120s"));
+        driver.report(Path.of(options.get("out", "load/results")), options.getDuration("duration", "120s"));
+    }
+
+    private void run(int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        recordFrom = System.nanoTime() + warmup.toNanos();
+        stopAt = recordFrom + duration.toNanos();
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            SplittableRandom random = new SplittableRandom(i);
+            Thread worker = new Thread(() -> work(random), "load-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private void work(SplittableRandom random) {
+        while (System.nanoTime() < stopAt) {
+            Request request = mix.get(random.nextInt(mix.size()));
+            HttpRequest httpRequest = request.build(random);
+            if (httpRequest == null) {
+                continue;
+            }
+            long started = System.nanoTime();
+            int status;
+            String body;
+            try {
+                HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+                status = response.statusCode();
+                body = response.body();
+            } catch (IOException e) {
+                status = -1;
+                body = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long finished = System.nanoTime();
+            if (httpRequest.method().equals("POST") && status == 200) {
+                remember(body);
+            }
+            if (started >= recordFrom && finished <= stopAt) {
+                request.endpoint.record(finished - started, status);
+            }
+        }
+    }
+
+    private void add(String name, int weight, RequestFactory factory) {
+        Endpoint endpoint = endpoints.computeIfAbsent(name, key -> new Endpoint());
+        Request request = new Request(endpoint, factory);
+        for (int i = 0; i < weight; i++) {
+            mix.add(request);
+        }
+    }
+
+    private HttpRequest search(SplittableRandom random) {
+        return get("/items/search?size=20&text=" + population.searchText(random).replace(" ", "%20"), null);
+    }
+
+    private HttpRequest searchFree(SplittableRandom random) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1 + random.nextInt(60)).truncatedTo(ChronoUnit.DAYS);
+        return get("/items/search?size=20&text=" + population.searchText(random).replace(" ", "%20")
+                + "&start=" + start + "&end=" + start.plusDays(1 + random.nextInt(3)), null);
+    }
+
+    private HttpRequest ownerItems(SplittableRandom random) {
+        return get("/items?size=20", population.popularOwner(random));
+    }
+
+    private HttpRequest item(SplittableRandom random) {
+        return get("/items/" + population.popularItem(random), 1 + random.nextLong(population.getUsers()));
+    }
+
+    private HttpRequest bookerBookings(SplittableRandom random) {
+        return get("/bookings?size=20&state=" + STATES[random.nextInt(STATES.length)],
+                1 + random.nextLong(population.getUsers()));
+    }
+
+    private HttpRequest ownerBookings(SplittableRandom random) {
+        return get("/bookings/owner?size=20&state=" + STATES[random.nextInt(STATES.length)],
+                population.popularOwner(random));
+    }
+
+    private HttpRequest createBooking(SplittableRandom random) {
+        long item = population.popularItem(random);
+        long booker = population.userOtherThan(population.ownerOf(item), random);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).plusMinutes(random.nextInt(365 * 24 * 60))
+                .truncatedTo(ChronoUnit.SECONDS);
+        String body = String.format("{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}", item, start,
+                start.plusDays(1 + random.nextInt(7)));
+        return HttpRequest.newBuilder(URI.create(gateway + "/bookings"))
+                .header(USER_ID, String.valueOf(booker))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Approves a booking created earlier by this run, skipped while there is none.
+     */
+    private HttpRequest approveBooking(SplittableRandom random) {
+        long[] booking = waiting.poll();
+        if (booking == null) {
+            return null;
+        }
+        return HttpRequest.newBuilder(URI.create(gateway + "/bookings/" + booking[0] + "?approved="
+                        + (random.nextInt(10) > 0)))
+                .header(USER_ID, String.valueOf(booking[1]))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    /**
+     * Keeps the id of a created booking together with the owner who may approve it.
+     */
+    private void remember(String body) {
+        Matcher id = ID.matcher(body);
+        Matcher item = ITEM_ID.matcher(body);
+        if (id.find() && item.find()) {
+            waiting.add(new long[]{Long.parseLong(id.group(1)), population.ownerOf(Long.parseLong(item.group(1)))});
+        }
+    }
+
+    private HttpRequest get(String path, Long userId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(gateway + path)).GET();
+        if (userId != null) {
+            builder.header(USER_ID, String.valueOf(userId));
+        }
+        return builder.build();
+    }
+
+    private void report(Path out, Duration duration) throws IOException {
+        Files.createDirectories(out);
+        double seconds = duration.toMillis() / 1000.0;
+        PrintStream console = System.out;
+        console.printf("%-22s %9s %7s %9s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        StringBuilder json = new StringBuilder("[\n");
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Histogram histogram = entry.getValue().latency;
+            long requests = histogram.getTotalCount();
+            console.printf(Locale.ROOT, "%-22s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(),
+                    requests, entry.getValue().errors.sum(), requests / seconds, millis(histogram, 50),
+                    millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1e6);
+            json.append(String.format(Locale.ROOT, "  {\"endpoint\": \"%s\", \"requests\": %d, \"errors\": %d, "
+                            + "\"throughput\": %.1f, \"p50\": %.3f, \"p90\": %.3f, \"p99\": %.3f, \"p999\": %.3f, "
+                            + "\"max\": %.3f},%n", entry.getKey(), requests, entry.getValue().errors.sum(),
+                    requests / seconds, millis(histogram, 50), millis(histogram, 90), millis(histogram, 99),
+                    millis(histogram, 99.9), histogram.getMaxValue() / 1e6));
+            String file = entry.getKey().toLowerCase(Locale.ROOT).replaceAll("[^a-z]+", "-") + ".hgrm";
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(out.resolve(file)))) {
+                histogram.outputPercentileDistribution(hgrm, 1e6);
+            }
+        }
+        json.setLength(json.length() - 2);
+        Files.writeString(out.resolve("summary.json"), json.append("\n]\n"));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    private interface RequestFactory {
+        HttpRequest build(SplittableRandom random);
+    }
+
+    private static final class Request {
+        private final Endpoint endpoint;
+        private final RequestFactory factory;
+
+        private Request(Endpoint endpoint, RequestFactory factory) {
+            this.endpoint = endpoint;
+            this.factory = factory;
+        }
+
+        private HttpRequest build(SplittableRandom random) {
+            return factory.build(random);
+        }
+    }
+
+    private static final class Endpoint {
+        private final Histogram latency = new ConcurrentHistogram(Duration.ofMinutes(1).toNanos(), 3);
+        private final LongAdder errors = new LongAdder();
+
+        private void record(long nanos, int status) {
+            latency.recordValue(Math.min(nanos, latency.getHighestTrackableValue()));
+            if (status < 200 || status >= 400) {
+                errors.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.OwnerItemDto;
+import ru.practicum.shareit.item.model.ExtendItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping of one page, as the controllers do it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"20", "100"})
+    private int size;
+
+    private AnnotationConfigApplicationContext context;
+    private BookingMapper bookingMapper;
+    private ItemMapper itemMapper;
+    private List<Booking> bookings;
+    private List<ExtendItem> items;
+
+    @Setup
+    public void setUp() {
+        context = Fixtures.mappers();
+        bookingMapper = context.getBean(BookingMapper.class);
+        itemMapper = context.getBean(ItemMapper.class);
+        bookings = Fixtures.bookings(size);
+        items = Fixtures.extendItems(size, 3);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingDto> bookingToDto() {
+        List<BookingDto> dtos = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            dtos.add(bookingMapper.toDto(booking));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<OwnerItemDto> extendItemToOwnerDto() {
+        List<OwnerItemDto> dtos = new ArrayList<>(items.size());
+        for (ExtendItem item : items) {
+            dtos.add(itemMapper.toDtoOwner(item));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.benchmarks;
+
+import java.util.SplittableRandom;
+
+/**
+ * Shape of the synthetic data set, shared by {@link DataGenerator} and the load driver so that both agree
+ * on who owns what and on what is popular. Users 1..owners own items, lower ids are the more popular
+ * owners and items.
+ */
+public class Population {
+    private static final String[] NOUNS = {"drill", "saw", "ladder", "tent", "kayak", "bicycle", "projector",
+            "camera", "tripod", "guitar", "amplifier", "sander", "grinder", "mixer", "stroller", "snowboard",
+            "skis", "scooter", "generator", "compressor", "lawnmower", "trimmer", "vacuum", "heater", "drone",
+            "telescope", "microscope", "easel", "sewing machine", "jackhammer", "wheelbarrow", "trailer",
+            "canoe", "hammock", "grill", "smoker", "speaker", "console", "keyboard", "violin"};
+    private static final String[] ADJECTIVES = {"cordless", "electric", "compact", "heavy", "portable", "old",
+            "new", "professional", "folding", "small", "large", "vintage", "quiet", "powerful", "light",
+            "sturdy", "digital", "manual", "waterproof", "rechargeable"};
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+
+    private final long users;
+    private final long owners;
+    private final long items;
+    private final ZipfSampler ownerRanks;
+    private final ZipfSampler itemRanks;
+
+    public Population(long users, long owners, long items, double exponent) {
+        if (owners >= users) {
+            throw new IllegalArgumentException("Some users must not own items");
+        }
+        this.users = users;
+        this.owners = owners;
+        this.items = items;
+        this.ownerRanks = new ZipfSampler(owners, exponent);
+        this.itemRanks = new ZipfSampler(items, exponent);
+    }
+
+    public long getUsers() {
+        return users;
+    }
+
+    public long getItems() {
+        return items;
+    }
+
+    /**
+     * A pure function of the item id, the driver recomputes it instead of asking the server.
+     */
+    public long ownerOf(long itemId) {
+        return ownerRanks.sample(new SplittableRandom(SEED * itemId));
+    }
+
+    public long popularOwner(SplittableRandom random) {
+        return ownerRanks.sample(random);
+    }
+
+    public long popularItem(SplittableRandom random) {
+        return itemRanks.sample(random);
+    }
+
+    public long userOtherThan(long userId, SplittableRandom random) {
+        long user = 1 + random.nextLong(users - 1);
+        return user >= userId ? user + 1 : user;
+    }
+
+    public String itemName(long itemId) {
+        return ADJECTIVES[(int) (itemId * 7 % ADJECTIVES.length)] + " " + NOUNS[(int) (itemId % NOUNS.length)];
+    }
+
+    public String itemDescription(long itemId) {
+        return NOUNS[(int) (itemId % NOUNS.length)] + " for rent, item " + itemId + ", "
+                + ADJECTIVES[(int) (itemId * 13 % ADJECTIVES.length)] + " and in good condition";
+    }
+
+    public String searchText(SplittableRandom random) {
+        return NOUNS[random.nextInt(NOUNS.length)];
+    }
+}
@@ -0,0 +1,176 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.ItemBookingSummaryService;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ShortBookingView;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.OwnerItemDto;
+import ru.practicum.shareit.item.model.CommentView;
+import ru.practicum.shareit.item.model.ExtendItem;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.LatestComment;
+import ru.practicum.shareit.item.repository.CommentRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Owner listings against embedded H2, mapped to DTOs. Entity listings are the baseline the projections replaced
+ * and run in one transaction the way open-session-in-view served them; the projection listings go through
+ * the services, each opening its own read-only one.
+ * The streamed listings hand every row to the consumer as it is read instead of returning a page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final long OWNER_ID = 1L;
+    private static final int COMMENTS_PER_ITEM = 10;
+    /**
+     * The entity listings the owner endpoints served before the projections, kept here as their baseline.
+     */
+    private static final String OWNER_ITEMS = "SELECT item FROM Item item WHERE item.owner.id = ?1 ORDER BY item.id";
+    private static final String OWNER_BOOKINGS = "SELECT booking FROM Booking booking JOIN FETCH booking.item " +
+            "JOIN FETCH booking.booker WHERE booking.owner.id = ?1 ORDER BY booking.start DESC";
+
+    @Param({"20", "100"})
+    private int size;
+
+    @Param({"100"})
+    private int owners;
+
+    @Param({"100"})
+    private int itemsPerOwner;
+
+    @Param({"10"})
+    private int bookingsPerItem;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private ItemService itemService;
+    private CommentRepository commentRepository;
+    private ItemBookingSummaryService itemBookingSummaryService;
+    private BookingService bookingService;
+    private ItemMapper itemMapper;
+    private BookingMapper bookingMapper;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("ci")
+                .run();
+        new DataGenerator(context.getBean(JdbcTemplate.class))
+                .generate(owners, owners * 10, itemsPerOwner, bookingsPerItem, 2);
+        itemBookingSummaryService = context.getBean(ItemBookingSummaryService.class);
+        itemBookingSummaryService.rebuild();
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                context.getBean(EntityManagerFactory.class));
+        itemService = context.getBean(ItemService.class);
+        commentRepository = context.getBean(CommentRepository.class);
+        bookingService = context.getBean(BookingService.class);
+        itemMapper = context.getBean(ItemMapper.class);
+        bookingMapper = context.getBean(BookingMapper.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OwnerItemDto> ownerItems() {
+        return transactionTemplate.execute(status -> {
+            List<Item> items = entityManager.createQuery(OWNER_ITEMS, Item.class)
+                    .setParameter(1, OWNER_ID)
+                    .setMaxResults(size)
+                    .getResultList();
+            List<Long> ids = items.stream().map(Item::getId).collect(Collectors.toList());
+            Map<Long, List<CommentView>> comments = commentRepository.findLatestByItemIdIn(ids, COMMENTS_PER_ITEM)
+                    .stream()
+                    .map(LatestComment::toView)
+                    .collect(Collectors.groupingBy(CommentView::getItemId));
+            Map<Boolean, Map<Long, ShortBookingView>> bookings = itemBookingSummaryService.find(OWNER_ID,
+                    ids.get(0), ids.get(ids.size() - 1));
+            return items.stream()
+                    .map(item -> new ExtendItem(item)
+                            .setComments(comments.getOrDefault(item.getId(), List.of()))
+                            .setLastBooking(bookings.get(true).get(item.getId()))
+                            .setNextBooking(bookings.get(false).get(item.getId())))
+                    .map(itemMapper::toDtoOwner)
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Benchmark
+    public List<BookingDto> ownerBookings() {
+        return transactionTemplate.execute(status -> entityManager.createQuery(OWNER_BOOKINGS, Booking.class)
+                .setParameter(1, OWNER_ID)
+                .setMaxResults(size)
+                .getResultStream()
+                .map(bookingMapper::toDto)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<OwnerItemDto> ownerItemViews() {
+        return itemService.getOwnerItemViews(OWNER_ID, null, PageRequest.of(0, size))
+                .map(itemMapper::toDtoOwner)
+                .getContent();
+    }
+
+    @Benchmark
+    public List<BookingDto> ownerBookingViews() {
+        return bookingService.getOwnerBookingViews(OWNER_ID, BookingState.ALL, null, PageRequest.of(0, size))
+                .map(bookingMapper::toDto)
+                .getContent();
+    }
+
+    @Benchmark
+    public void ownerBookingViewsStreamed(Blackhole blackhole) {
+        bookingService.streamOwnerBookingViews(OWNER_ID, BookingState.ALL, null, size,
+                booking -> blackhole.consume(bookingMapper.toDto(booking)));
+    }
+
+    @Benchmark
+    public void ownerItemViewsStreamed(Blackhole blackhole) {
+        itemService.streamOwnerItemViews(OWNER_ID, null, size, item -> blackhole.consume(itemMapper.toDtoOwner(item)));
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Creates the server schema and fills it with the synthetic data set of the load suite.
+ * <pre>
+ * --url=jdbc:h2:file:./load/results/shareit --username=test --password=test
+ * --users=1000000 --owners=100000 --items=1000000 --bookings=3000000 --comments=1000000 --exponent=1.1
+ * </pre>
+ * The same population options must be given to {@link LoadDriver}.
+ */
+public final class SyntheticData {
+
+    private SyntheticData() {
+    }
+
+    public static void main(String[] args) {
+        Options options = new Options(args);
+        String url = options.get("url", "jdbc:h2:file:./load/results/shareit");
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(url,
+                options.get("username", "test"), options.get("password", "test"), true);
+
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        if (url.startsWith("jdbc:postgresql:")) {
+            schema.addScript(new ClassPathResource("schema-postgresql.sql"));
+        }
+        schema.execute(dataSource);
+
+        long started = System.nanoTime();
+        Population population = options.population();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        new DataGenerator(jdbcTemplate).generate(population, options.getLong("bookings", 3_000_000),
+                options.getLong("comments", 1_000_000));
+        if (url.startsWith("jdbc:postgresql:")) {
+            jdbcTemplate.execute("ANALYZE");
+        }
+        System.out.printf("Generated %d users, %d items in %d s%n", population.getUsers(), population.getItems(),
+                (System.nanoTime() - started) / 1_000_000_000);
+        dataSource.destroy();
+    }
+}
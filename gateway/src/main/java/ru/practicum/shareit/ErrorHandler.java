@@ -6,10 +6,13 @@ import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import ru.practicum.shareit.exception.BadStateException;
 
 import javax.validation.ConstraintViolationException;
@@ -44,7 +47,8 @@ public class ErrorHandler {
     public ErrorResponse handleException(ConstraintViolationException e) {
         Map<String, String> errors = new HashMap<>();
         e.getConstraintViolations().forEach((error) -> {
-            String fieldName = error.getPropertyPath().toString().split("\\.")[1];
+            String path = error.getPropertyPath().toString();
+            String fieldName = path.substring(path.indexOf('.') + 1);
             String errorMessage = error.getMessage();
             errors.put(fieldName, errorMessage);
             log.info("Validation failed for field: {}. Error message: {}", fieldName, errorMessage);
@@ -73,10 +77,24 @@ public class ErrorHandler {
         return ErrorResponse.builder().error(e.getMessage()).build();
     }
 
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleException(MissingServletRequestParameterException e) {
+        log.info("Missing request parameter: {}", e.getMessage());
+        return ErrorResponse.builder().error(e.getMessage()).build();
+    }
+
     @ExceptionHandler(BadStateException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleException(BadStateException e) {
         log.info("Bad booking state: {}", e.getMessage());
         return ErrorResponse.builder().error(e.getMessage()).build();
     }
+
+    @ExceptionHandler({ResourceAccessException.class, WebClientRequestException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleException(RuntimeException e) {
+        log.warn("Server unavailable: {}", e.getMessage());
+        return ErrorResponse.builder().error("Server unavailable").build();
+    }
 }
@@ -10,18 +10,33 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Component
 public class MdcFilter extends OncePerRequestFilter {
+    private static final String REQUEST_ID_ATTRIBUTE = MdcFilter.class.getName() + ".requestId";
 
-    private static int track;
+    /**
+     * A Mono returned by a controller is written in an async dispatch on another container thread,
+     * which has to log under the id of the request too.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         String[] queries = request.getServletPath().split("/");
-        MDC.put("trackingNumber", String.valueOf(++track));
+        String requestId = (String) request.getAttribute(REQUEST_ID_ATTRIBUTE);
+        if (requestId == null) {
+            requestId = nextRequestId();
+            request.setAttribute(REQUEST_ID_ATTRIBUTE, requestId);
+            response.setHeader(Variables.REQUEST_ID, requestId);
+        }
+        MDC.put(Variables.MDC_REQUEST_ID, requestId);
         if (queries.length > 1) {
             MDC.put("query", queries[1]);
         } else {
@@ -30,8 +45,16 @@ public class MdcFilter extends OncePerRequestFilter {
         try {
             filterChain.doFilter(request, response);
         } finally {
-            MDC.remove("trackingNumber");
+            MDC.remove(Variables.MDC_REQUEST_ID);
             MDC.remove("query");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 63 random bits in base 36, at most 13 characters. Each thread draws from its own generator,
+     * so concurrent requests neither contend nor repeat ids.
+     */
+    static String nextRequestId() {
+        return Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, Character.MAX_RADIX);
+    }
+}
@@ -2,5 +2,7 @@ package ru.practicum.shareit;
 
 public class Variables {
     public static final String USER_ID = "X-Sharer-User-Id";
+    public static final String REQUEST_ID = "X-Request-Id";
+    public static final String MDC_REQUEST_ID = "requestId";
 
 }
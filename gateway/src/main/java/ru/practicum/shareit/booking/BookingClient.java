@@ -4,12 +4,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusBatchDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -17,43 +23,60 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ResponseCache responseCache, @Nullable WebClient webClient,
+                         @Value("${shareit-gateway.client.passthrough:false}") boolean passthrough) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                responseCache,
+                webClient,
+                passthrough
         );
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = getParametersMap(state, from, size);
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getBookings(long userId, BookingState state, Integer from, Integer size,
+                                                    String cursor, Boolean total) {
+        Map<String, Object> parameters = getParametersMap(state, from, size, cursor, total);
+        return get(query(parameters), userId, parameters);
     }
 
-    public ResponseEntity<Object> getOwnerBooking(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = getParametersMap(state, from, size);
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getOwnerBooking(long userId, BookingState state, Integer from, Integer size,
+                                                        String cursor, Boolean total) {
+        Map<String, Object> parameters = getParametersMap(state, from, size, cursor, total);
+        return get("/owner" + query(parameters), userId, parameters);
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> createBooking(Long userId, BookingDto bookingDto) {
+    public Mono<ResponseEntity<Object>> createBooking(Long userId, BookingDto bookingDto) {
         return post("", userId, bookingDto);
     }
 
-    public ResponseEntity<Object> updateBookingStatus(Long userId, Long bookingId, Boolean approved) {
+    public Mono<ResponseEntity<Object>> updateBookingStatus(Long userId, Long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
-    private static Map<String, Object> getParametersMap(BookingState state, Integer from, Integer size) {
-        return Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
+    public Mono<ResponseEntity<Object>> createBookings(Long userId, List<BookingDto> bookingDtos) {
+        return post("/batch", userId, bookingDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> updateBookingStatuses(Long userId, BookingStatusBatchDto statusDto) {
+        return patch("/owner/status", userId, statusDto);
+    }
+
+    private static Map<String, Object> getParametersMap(BookingState state, Integer from, Integer size,
+                                                        String cursor, Boolean total) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        parameters.put("cursor", cursor);
+        parameters.put("total", total);
+        return parameters;
     }
 }
@@ -13,12 +13,20 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.Create;
 import ru.practicum.shareit.Variables;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusBatchDto;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import javax.validation.groups.Default;
+import java.util.List;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -30,42 +38,67 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @PostMapping
-    public ResponseEntity<Object> createBooking(@RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                                @Validated(Create.class) @RequestBody BookingDto bookingDto) {
+    public Mono<ResponseEntity<Object>> createBooking(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                      @Validated(Create.class) @RequestBody BookingDto bookingDto) {
         return bookingClient.createBooking(userId, bookingDto);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> updateBookingStatus(@RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                                      @PathVariable @Positive Long bookingId,
-                                                      @RequestParam Boolean approved) {
+    public Mono<ResponseEntity<Object>> updateBookingStatus(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                            @PathVariable @Positive Long bookingId,
+                                                            @RequestParam Boolean approved) {
         return bookingClient.updateBookingStatus(userId, bookingId, approved);
     }
 
+    // Каждый элемент пакета проверяется как отдельное бронирование (группа Create),
+    // при ошибке весь пакет отклоняется с путём до неверного поля элемента
+    @PostMapping("/batch")
+    @Validated({Create.class, Default.class})
+    public Mono<ResponseEntity<Object>> createBookings(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                       @RequestBody @NotEmpty @Size(max = 100)
+                                                       List<@NotNull @Valid BookingDto> bookingDtos) {
+        log.info("Create {} bookings, userId={}", bookingDtos.size(), userId);
+        return bookingClient.createBookings(userId, bookingDtos);
+    }
+
+    @PatchMapping("/owner/status")
+    public Mono<ResponseEntity<Object>> updateBookingStatuses(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                              @Valid @RequestBody BookingStatusBatchDto statusDto) {
+        log.info("Update status of {} bookings, approved={}, userId={}", statusDto.getBookingIds().size(),
+                statusDto.getApproved(), userId);
+        return bookingClient.updateBookingStatuses(userId, statusDto);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                             @PathVariable @Positive Long bookingId) {
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                   @PathVariable @Positive Long bookingId) {
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getBookerBookings(@RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                                    @RequestParam(defaultValue = "ALL") String state,
-                                                    @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                                    @RequestParam(defaultValue = "20") @Positive int size) {
+    public Mono<ResponseEntity<Object>> getBookerBookings(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                          @RequestParam(defaultValue = "ALL") String state,
+                                                          @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                          @RequestParam(defaultValue = "20") @Positive int size,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Boolean total) {
         BookingState bookingState = BookingState.get(state);
-        log.info("Get booking with state {}, userId={}, from={}, size={}", state, userId, from, size);
-        return bookingClient.getBookings(userId, bookingState, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", state, userId, from, size,
+                cursor);
+        return bookingClient.getBookings(userId, bookingState, from, size, cursor, total);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getOwnerBookings(@RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                                             @RequestParam(defaultValue = "ALL") String state,
-                                                             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                                             @RequestParam(defaultValue = "20") @Positive int size) {
+    public Mono<ResponseEntity<Object>> getOwnerBookings(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                                   @RequestParam(defaultValue = "ALL") String state,
+                                                                   @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                                   @RequestParam(defaultValue = "20") @Positive int size,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Boolean total) {
         BookingState bookingState = BookingState.get(state);
-        log.info("Get booking with state {}, userId={}, from={}, size={}", state, userId, from, size);
-        return bookingClient.getOwnerBooking(userId, bookingState, from, size);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", state, userId, from, size,
+                cursor);
+        return bookingClient.getOwnerBooking(userId, bookingState, from, size, cursor, total);
     }
 }
 
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Getter
+@Setter
+@ToString
+@Builder
+public class BookingStatusBatchDto {
+    @NotEmpty
+    @Size(max = 100)
+    private List<@NotNull @Positive Long> bookingIds;
+    @NotNull
+    private Boolean approved;
+}
@@ -1,98 +1,246 @@
 package ru.practicum.shareit.client;
 
+import org.slf4j.MDC;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.Variables;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 public class BaseClient {
+    private static final List<String> HOP_BY_HOP_HEADERS = List.of(HttpHeaders.CONNECTION, "Keep-Alive",
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.TE, HttpHeaders.TRAILER, HttpHeaders.UPGRADE,
+            HttpHeaders.PROXY_AUTHENTICATE, HttpHeaders.PROXY_AUTHORIZATION);
+
     protected final RestTemplate rest;
+    private final ResponseCache responseCache;
+    @Nullable
+    private final WebClient webClient;
+    private final boolean passthrough;
 
-    public BaseClient(RestTemplate rest) {
+    /**
+     * With a WebClient the requests to the server are non-blocking, otherwise they go through the RestTemplate
+     * on the calling thread. In passthrough mode response bodies are relayed as bytes without being parsed.
+     */
+    public BaseClient(RestTemplate rest, ResponseCache responseCache, @Nullable WebClient webClient,
+                      boolean passthrough) {
         this.rest = rest;
+        this.responseCache = responseCache;
+        this.webClient = webClient;
+        this.passthrough = passthrough;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Object>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
-        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    /**
+     * Revalidates a cached response with its own ETag, whatever validator the client sent. The client gets
+     * a 304 when its If-None-Match matches the ETag of the response that is current, otherwise the body.
+     */
+    protected Mono<ResponseEntity<Object>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        URI uri = expand(path, parameters);
+        String key = ResponseCache.key(uri.toString(), userId);
+        ResponseEntity<Object> cached = responseCache.get(key);
+        HttpHeaders headers = defaultHeaders(userId);
+        String clientIfNoneMatch = clientIfNoneMatch();
+        if (cached != null) {
+            headers.setIfNoneMatch(cached.getHeaders().getETag());
+        } else if (clientIfNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, clientIfNoneMatch);
+        }
+
+        return exchange(HttpMethod.GET, uri, headers, null).map(shareitServerResponse -> {
+            if (shareitServerResponse.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                // Без сохраненного ответа 304 относится к валидатору клиента и передается ему как есть
+                return cached != null ? notModifiedOr(cached, clientIfNoneMatch) : shareitServerResponse;
+            }
+            ResponseEntity<Object> gatewayResponse = prepareGatewayResponse(shareitServerResponse);
+            if (gatewayResponse.getStatusCode().is2xxSuccessful()) {
+                responseCache.put(key, gatewayResponse);
+                return notModifiedOr(gatewayResponse, clientIfNoneMatch);
+            }
+            return gatewayResponse;
+        });
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Object>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Object>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Object>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Object>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    /**
+     * Builds a query template from the parameters, those without a value are left to the server defaults.
+     */
+    protected static String query(Map<String, Object> parameters) {
+        return parameters.entrySet().stream()
+                .filter(parameter -> parameter.getValue() != null)
+                .map(parameter -> parameter.getKey() + "={" + parameter.getKey() + "}")
+                .collect(Collectors.joining("&", "?", ""));
+    }
+
+    private <T> Mono<ResponseEntity<Object>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        return exchange(method, expand(path, parameters), defaultHeaders(userId), body)
+                .map(this::prepareGatewayResponse);
+    }
+
+    private URI expand(String path, @Nullable Map<String, Object> parameters) {
+        return parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+    }
+
+    private <T> Mono<ResponseEntity<Object>> exchange(HttpMethod method, URI uri, HttpHeaders headers,
+                                                      @Nullable T body) {
+        if (webClient == null) {
+            return Mono.fromCallable(() -> {
+                try {
+                    return rest.exchange(uri, method, new HttpEntity<>(body, headers), responseType());
+                } catch (HttpStatusCodeException e) {
+                    return ResponseEntity.status(e.getStatusCode())
+                            .headers(e.getResponseHeaders())
+                            .<Object>body(e.getResponseBodyAsByteArray());
+                }
+            });
+        }
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(uri)
+                .headers(requestHeaders -> requestHeaders.addAll(headers));
+        return (body != null ? request.bodyValue(body) : request).exchangeToMono(response -> {
+            if (response.statusCode().isError()) {
+                return response.bodyToMono(byte[].class)
+                        .defaultIfEmpty(new byte[0])
+                        .map(bytes -> ResponseEntity.status(response.rawStatusCode())
+                                .headers(response.headers().asHttpHeaders())
+                                .<Object>body(bytes));
+            }
+            return response.toEntity(responseType());
+        }).transform(BaseClient::withRequestId)
+                .contextWrite(context -> headers.containsKey(Variables.REQUEST_ID)
+                        ? context.put(Variables.MDC_REQUEST_ID, headers.getFirst(Variables.REQUEST_ID))
+                        : context);
+    }
+
+    /**
+     * The response of a WebClient arrives on a connection thread, which gets the request id from the Reactor
+     * context for the callbacks downstream and drops it once the exchange is over. A thread that has an id
+     * of its own, as the request thread does, is left alone.
+     */
+    private static <T> Mono<T> withRequestId(Mono<T> exchange) {
+        return Mono.defer(() -> {
+            AtomicReference<Thread> restoredOn = new AtomicReference<>();
+            return exchange.doOnEach(signal -> {
+                if ((signal.isOnNext() || signal.isOnError()) && MDC.get(Variables.MDC_REQUEST_ID) == null) {
+                    String requestId = signal.getContextView().getOrDefault(Variables.MDC_REQUEST_ID, null);
+                    if (requestId != null) {
+                        MDC.put(Variables.MDC_REQUEST_ID, requestId);
+                        restoredOn.set(Thread.currentThread());
+                    }
+                }
+            }).doFinally(signalType -> {
+                if (restoredOn.get() == Thread.currentThread()) {
+                    MDC.remove(Variables.MDC_REQUEST_ID);
+                }
+            });
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<Object> responseType() {
+        return (Class<Object>) (passthrough ? byte[].class : Object.class);
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+    private static ResponseEntity<Object> notModifiedOr(ResponseEntity<Object> response,
+                                                        @Nullable String ifNoneMatch) {
+        String etag = response.getHeaders().getETag();
+        if (ifNoneMatch == null || etag == null) {
+            return response;
+        }
+        for (String validator : ifNoneMatch.split(",")) {
+            String tag = validator.trim();
+            if (tag.equals("*") || weak(tag).equals(weak(etag))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return response;
+    }
+
+    /**
+     * If-None-Match compares ETags weakly, so a strong and a weak tag of the same value match.
+     */
+    private static String weak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String clientIfNoneMatch() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) attributes).getRequest().getHeader(HttpHeaders.IF_NONE_MATCH);
+        }
+        return null;
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -100,12 +248,25 @@ public class BaseClient {
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         if (userId != null) {
-            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+            headers.set(Variables.USER_ID, String.valueOf(userId));
+        }
+        // Заголовки собираются в потоке запроса, поэтому его id еще в MDC в обоих режимах
+        String requestId = MDC.get(Variables.MDC_REQUEST_ID);
+        if (requestId != null) {
+            headers.set(Variables.REQUEST_ID, requestId);
         }
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
+    private ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
+        if (passthrough) {
+            // Тело уже в байтах сервера, заголовки соединения с сервером клиенту не передаются
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(response.getHeaders());
+            HOP_BY_HOP_HEADERS.forEach(headers::remove);
+            return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+        }
+
         if (response.getStatusCode().is2xxSuccessful()) {
             return response;
         }
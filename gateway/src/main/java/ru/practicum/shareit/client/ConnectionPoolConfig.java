@@ -0,0 +1,78 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.client.RestTemplateBuilderConfigurer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One connection pool for the gateway to server traffic of all blocking clients.
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager serverConnectionManager(
+            @Value("${shareit-gateway.client.max-connections:500}") int maxConnections,
+            @Value("${shareit-gateway.client.max-per-route:500}") int maxPerRoute) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(2000);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient serverHttpClient(
+            PoolingHttpClientConnectionManager serverConnectionManager,
+            @Value("${shareit-gateway.client.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-gateway.client.read-timeout:30s}") Duration readTimeout,
+            @Value("${shareit-gateway.client.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+            @Value("${shareit-gateway.client.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${shareit-gateway.client.keep-alive:60s}") Duration keepAlive) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
+                .setConnectionRequestTimeout((int) pendingAcquireTimeout.toMillis())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(serverConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                // Keep-Alive сервера имеет приоритет, без него соединение переиспользуется не дольше keep-alive
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response,
+                            context);
+                    return serverKeepAlive > 0 ? serverKeepAlive : keepAlive.toMillis();
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(maxIdleTime.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    public MeterBinder serverConnectionPoolMetrics(PoolingHttpClientConnectionManager serverConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(serverConnectionManager, "shareit-server");
+    }
+
+    /**
+     * Every RestTemplate built by the clients shares the pooled HttpClient.
+     */
+    @Bean
+    public RestTemplateBuilder restTemplateBuilder(RestTemplateBuilderConfigurer configurer,
+                                                   CloseableHttpClient serverHttpClient) {
+        return configurer.configure(new RestTemplateBuilder())
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(serverHttpClient));
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking mode: all clients share one WebClient over a single pooled connection provider,
+ * so a request waiting on the server holds a pooled connection but no Tomcat worker thread.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit-gateway.client.mode", havingValue = "reactive")
+public class ReactiveClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider serverConnectionProvider(
+            @Value("${shareit-gateway.client.max-per-route:500}") int maxConnections,
+            @Value("${shareit-gateway.client.pending-acquire-max-count:10000}") int pendingAcquireMaxCount,
+            @Value("${shareit-gateway.client.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+            @Value("${shareit-gateway.client.max-idle-time:30s}") Duration maxIdleTime) {
+        return ConnectionProvider.builder("shareit-server")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient serverWebClient(WebClient.Builder builder, ConnectionProvider serverConnectionProvider,
+                                     @Value("${shareit-gateway.client.connect-timeout:2s}") Duration connectTimeout,
+                                     @Value("${shareit-gateway.client.read-timeout:30s}") Duration readTimeout) {
+        HttpClient httpClient = HttpClient.create(serverConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Successful GET responses of the server that carry an ETag, keyed by expanded URI and sharer id.
+ * An entry is only served after the server revalidated it with 304 Not Modified.
+ */
+@Component
+public class ResponseCache {
+    private final Cache<String, ResponseEntity<Object>> responses;
+
+    public ResponseCache(MeterRegistry meterRegistry,
+                         @Value("${shareit-gateway.response-cache.max-size:10000}") long maxSize,
+                         @Value("${shareit-gateway.response-cache.expire-after-access:10m}") Duration expireAfterAccess) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "gateway.responses");
+    }
+
+    public static String key(String uri, Long userId) {
+        return userId == null ? uri : userId + " " + uri;
+    }
+
+    public ResponseEntity<Object> get(String key) {
+        return responses.getIfPresent(key);
+    }
+
+    public void put(String key, ResponseEntity<Object> response) {
+        if (response.getHeaders().getETag() == null) {
+            responses.invalidate(key);
+        } else {
+            responses.put(key, response);
+        }
+    }
+}
@@ -4,10 +4,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
@@ -19,37 +22,49 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ResponseCache responseCache, @Nullable WebClient webClient,
+                      @Value("${shareit-gateway.client.passthrough:false}") boolean passthrough) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                responseCache,
+                webClient,
+                passthrough
         );
     }
 
-    public ResponseEntity<Object> createItem(long userId, ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> createItem(long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> updateItem(Long itemId, long userId, ItemDto userDto) {
+    public Mono<ResponseEntity<Object>> updateItem(Long itemId, long userId, ItemDto userDto) {
         return patch("/" + itemId, userId, userDto);
     }
 
 
-    public ResponseEntity<Object> getById(Long itemId, Long userId) {
+    public Mono<ResponseEntity<Object>> getById(Long itemId, Long userId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getAllUserItems(Long userId, Map<String, Object> parameters) {
-        return get("?from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getAllUserItems(Long userId, Map<String, Object> parameters) {
+        return get(query(parameters), userId, parameters);
     }
 
-    public ResponseEntity<Object> searchItems(Map<String, Object> parameters) {
-        return get("/search?text={text}&from={from}&size={size}", null, parameters);
+    public Mono<ResponseEntity<Object>> searchItems(Map<String, Object> parameters) {
+        return get("/search" + query(parameters), null, parameters);
     }
 
-    public ResponseEntity<Object> createComment(Long itemId, Long userId, CommentDto commentDto) {
+    public Mono<ResponseEntity<Object>> getComments(Long itemId, Map<String, Object> parameters) {
+        return get("/" + itemId + "/comments" + query(parameters), null, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> getAvailability(Long itemId, Map<String, Object> parameters) {
+        return get("/" + itemId + "/availability" + query(parameters), null, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> createComment(Long itemId, Long userId, CommentDto commentDto) {
         String path = MessageFormat.format("/{0}/comment",itemId);
         return post(path, userId, commentDto);
     }
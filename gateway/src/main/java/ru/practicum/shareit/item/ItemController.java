@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -13,13 +14,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.Create;
 import ru.practicum.shareit.Variables;
+import ru.practicum.shareit.exception.BadStateException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -35,8 +40,8 @@ public class ItemController {
 
     // Добавление новой вещи
     @PostMapping
-    public ResponseEntity<Object> add(@RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                       @RequestBody @Validated(Create.class) ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> add(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                             @RequestBody @Validated(Create.class) ItemDto itemDto) {
         log.info("Request on add {}, user id: {}", itemDto, userId);
 
         return itemClient.createItem(userId, itemDto);
@@ -44,9 +49,9 @@ public class ItemController {
 
     // Редактирование вещи
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> edit(@PathVariable @Positive Long itemId,
-                                        @RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                        @RequestBody ItemDto itemDto) {
+    public Mono<ResponseEntity<Object>> edit(@PathVariable @Positive Long itemId,
+                                              @RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                              @RequestBody ItemDto itemDto) {
         log.info("Request on edit item id: {}, {}, user id: {}", itemId, itemDto, userId);
 
         return itemClient.updateItem(itemId, userId, itemDto);
@@ -55,47 +60,102 @@ public class ItemController {
     // Просмотр информации о конкретной вещи по её идентификатору,
     // если смотрит владелец добавить последнее и будущее бронирование
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getById(@RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                                @PathVariable @Positive Long itemId) {
+    public Mono<ResponseEntity<Object>> getById(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                      @PathVariable @Positive Long itemId) {
         log.info("Request from user ID: {} on get item. ID: {}", userId, itemId);
         return itemClient.getById(itemId, userId);
     }
 
     // Просмотр владельцем списка всех его вещей с указанием названия и описанием для каждой
     @GetMapping
-    public ResponseEntity<Object> getAll(@RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                                     @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                                     @RequestParam(defaultValue = "20") @Positive int size) {
-        log.info("Request on get all for user id: {}", userId);
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
-        );
+    public Mono<ResponseEntity<Object>> getAll(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                           @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                           @RequestParam(defaultValue = "20") @Positive int size,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Boolean total) {
+        log.info("Request on get all for user id: {}, cursor: {}", userId, cursor);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        parameters.put("cursor", cursor);
+        parameters.put("total", total);
         return itemClient.getAllUserItems(userId, parameters);
     }
 
-    // Поиск вещи потенциальным арендатором
+    // Поиск вещи потенциальным арендатором,
+    // ranked=true упорядочивает по релевантности: начало названия, название, описание,
+    // start и end оставляют только вещи, свободные в этом окне
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestParam("text") String text,
-                                                     @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                                     @RequestParam(defaultValue = "20") @Positive int size) {
-        log.info("Request on search text: {}", text);
+    public Mono<ResponseEntity<Object>> searchItems(@RequestParam("text") String text,
+                                                           @RequestParam(defaultValue = "false") boolean ranked,
+                                                           @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                           @RequestParam(defaultValue = "20") @Positive int size,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Boolean total,
+                                                           @RequestParam(required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                           LocalDateTime start,
+                                                           @RequestParam(required = false)
+                                                           @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                           LocalDateTime end,
+                                                           @RequestParam(required = false) Boolean waiting) {
+        log.info("Request on search text: {}, cursor: {}, start: {}, end: {}", text, cursor, start, end);
+        if ((start == null) != (end == null)) {
+            throw new BadStateException("Search window needs both start and end");
+        }
+        if (start != null && !start.isBefore(end)) {
+            throw new BadStateException("Search window start {0} is not before its end {1}", start, end);
+        }
         if (text.isBlank()) {
-            return ResponseEntity.ok(List.of());
+            return Mono.just(ResponseEntity.ok(List.of()));
         }
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size,
-                "text", text.toLowerCase(Locale.ROOT)
-        );
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("text", text.toLowerCase(Locale.ROOT));
+        parameters.put("ranked", ranked);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        parameters.put("cursor", cursor);
+        parameters.put("total", total);
+        parameters.put("start", start);
+        parameters.put("end", end);
+        parameters.put("waiting", waiting);
         return itemClient.searchItems(parameters);
     }
 
+    // Просмотр комментариев к вещи, новые первыми, постранично по курсору
+    @GetMapping("/{itemId}/comments")
+    public Mono<ResponseEntity<Object>> getComments(@PathVariable @Positive Long itemId,
+                                                    @RequestParam(defaultValue = "20") @Positive int size,
+                                                    @RequestParam(required = false) String cursor) {
+        log.info("Request on get comments, item id: {}, cursor: {}", itemId, cursor);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("size", size);
+        parameters.put("cursor", cursor);
+        return itemClient.getComments(itemId, parameters);
+    }
+
+    // Свободные и занятые интервалы вещи в окне from..to
+    @GetMapping("/{itemId}/availability")
+    public Mono<ResponseEntity<Object>> getAvailability(@PathVariable @Positive Long itemId,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime from,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime to) {
+        log.info("Request on get availability, item id: {}, from: {}, to: {}", itemId, from, to);
+        if (!from.isBefore(to)) {
+            throw new BadStateException("Availability window start {0} is not before its end {1}", from, to);
+        }
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("from", from);
+        parameters.put("to", to);
+        return itemClient.getAvailability(itemId, parameters);
+    }
+
     // Добавление комментария
     @PostMapping("{itemId}/comment")
-    public ResponseEntity<Object> addComment(@RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                                 @RequestBody @Validated(Create.class) CommentDto commentDto,
-                                                 @PathVariable @Positive Long itemId) {
+    public Mono<ResponseEntity<Object>> addComment(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                       @RequestBody @Validated(Create.class) CommentDto commentDto,
+                                                       @PathVariable @Positive Long itemId) {
         log.info("Request on add comment {}, item id: {}, user id: {}", commentDto.getText(), itemId, userId);
         return itemClient.createComment(itemId, userId, commentDto);
     }
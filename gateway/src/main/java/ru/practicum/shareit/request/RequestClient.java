@@ -4,12 +4,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.request.dto.RequestDto;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Service
@@ -17,41 +21,48 @@ public class RequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public RequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ResponseCache responseCache, @Nullable WebClient webClient,
+                         @Value("${shareit-gateway.client.passthrough:false}") boolean passthrough) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .build(),
+                responseCache,
+                webClient,
+                passthrough
         );
     }
 
-    public ResponseEntity<Object> getRequests(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = getParametersMap(from, size);
-        return get("?from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getRequests(long userId, Integer from, Integer size, Boolean total) {
+        Map<String, Object> parameters = getParametersMap(from, size, null, total);
+        return get(query(parameters), userId, parameters);
     }
 
-    public ResponseEntity<Object> getOwnerRequests(long userId, Integer from, Integer size) {
-        Map<String, Object> parameters = getParametersMap(from, size);
-        return get("/owner?from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> getOwnerRequests(long userId, Integer from, Integer size) {
+        Map<String, Object> parameters = getParametersMap(from, size, null, null);
+        return get("/owner" + query(parameters), userId, parameters);
     }
 
-    public ResponseEntity<Object> getRequest(long userId, Long requestId) {
+    public Mono<ResponseEntity<Object>> getRequest(long userId, Long requestId) {
         return get("/" + requestId, userId);
     }
 
-    public ResponseEntity<Object> createRequest(Long userId, RequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> createRequest(Long userId, RequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getRequesterAll(Long userId, int from, int size) {
-        return get("/all?from={from}&size={size}", userId, getParametersMap(from, size));
+    public Mono<ResponseEntity<Object>> getRequesterAll(Long userId, int from, int size, String cursor, Boolean total) {
+        Map<String, Object> parameters = getParametersMap(from, size, cursor, total);
+        return get("/all" + query(parameters), userId, parameters);
     }
 
-    private static Map<String, Object> getParametersMap(Integer from, Integer size) {
-        return Map.of(
-                "from", from,
-                "size", size
-        );
+    private static Map<String, Object> getParametersMap(Integer from, Integer size, String cursor, Boolean total) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("from", from);
+        parameters.put("size", size);
+        parameters.put("cursor", cursor);
+        parameters.put("total", total);
+        return parameters;
     }
 }
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.Create;
 import ru.practicum.shareit.Variables;
 import ru.practicum.shareit.request.dto.RequestDto;
@@ -31,36 +32,39 @@ public class RequestController {
 
     // Добавление нового запроса
     @PostMapping
-    public ResponseEntity<Object> add(@RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                          @Validated(Create.class) @RequestBody RequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> add(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                @Validated(Create.class) @RequestBody RequestDto requestDto) {
             log.info("Add request on item {}, user id: {}", requestDto, userId);
         return requestClient.createRequest(userId, requestDto);
     }
 
     // Просмотр информации о конкретном запросе по его идентификатору
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getById(@RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                              @PathVariable @Positive Long requestId) {
+    public Mono<ResponseEntity<Object>> getById(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                    @PathVariable @Positive Long requestId) {
         log.info("Request from user ID: {} on get request. ID: {}", userId, requestId);
         return requestClient.getRequest(userId, requestId);
     }
 
     //получить список запросов, созданных другими пользователями
     @GetMapping
-    public ResponseEntity<Object> getRequests(@RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                                 @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                                 @RequestParam(defaultValue = "20") @Positive int size) {
+    public Mono<ResponseEntity<Object>> getRequests(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                       @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                       @RequestParam(defaultValue = "20") @Positive int size,
+                                                       @RequestParam(required = false) Boolean total) {
         log.info("Request on get all requests from user id: {}", userId);
-        return requestClient.getRequests(userId, from, size);
+        return requestClient.getRequests(userId, from, size, total);
     }
 
     // Просмотр пользователем списка всех его запросов с указанием ответов на них
     @GetMapping("/all")
-    public ResponseEntity<Object> getRequesterAll(@RequestHeader(Variables.USER_ID) @Positive Long userId,
-                                                  @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                                  @RequestParam(defaultValue = "20") @Positive int size) {
-        log.info("Request on get all requests");
+    public Mono<ResponseEntity<Object>> getRequesterAll(@RequestHeader(Variables.USER_ID) @Positive Long userId,
+                                                        @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                                        @RequestParam(defaultValue = "20") @Positive int size,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Boolean total) {
+        log.info("Request on get all requests, cursor: {}", cursor);
 
-        return requestClient.getRequesterAll(userId, from, size);
+        return requestClient.getRequesterAll(userId, from, size, cursor, total);
     }
 }
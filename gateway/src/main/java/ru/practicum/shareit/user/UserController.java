@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.Create;
 import ru.practicum.shareit.Update;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -31,14 +32,14 @@ public class UserController {
 
     //Просмотр всех пользователей.
     @GetMapping
-    public ResponseEntity<Object> getAll() {
+    public Mono<ResponseEntity<Object>> getAll() {
         log.info("Request on get all");
         return userClient.getUsers();
     }
 
     //Просмотр пользователя по идентификатору
     @GetMapping("{id}")
-    public ResponseEntity<Object> getById(@PathVariable @Positive(message = "ID should be positive") Long id) {
+    public Mono<ResponseEntity<Object>> getById(@PathVariable @Positive(message = "ID should be positive") Long id) {
         log.info("Request to get user with ID: {}", id);
         return userClient.getUser(id);
     }
@@ -46,7 +47,7 @@ public class UserController {
     //Добавление нового пользователя
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
-    public ResponseEntity<Object> create(@Validated(Create.class) @RequestBody UserDto userDto) {
+    public Mono<ResponseEntity<Object>> create(@Validated(Create.class) @RequestBody UserDto userDto) {
         log.debug("Request to create: {}", userDto);
         return userClient.create(userDto);
     }
@@ -54,18 +55,16 @@ public class UserController {
     //
 //    //Редактирование нового пользователя
     @PatchMapping("{id}")
-    public ResponseEntity<Object> update(@Validated(Update.class) @RequestBody UserDto userDto,
-                                         @PathVariable @Positive(message = "ID should be positive") Long id) {
+    public Mono<ResponseEntity<Object>> update(@Validated(Update.class) @RequestBody UserDto userDto,
+                                               @PathVariable @Positive(message = "ID should be positive") Long id) {
         log.debug("Request to updated: {}", userDto);
-        ResponseEntity<Object> updatedUser = userClient.update(id, userDto);
-        log.info("Has been updated: {}", updatedUser);
-        return updatedUser;
+        return userClient.update(id, userDto);
     }
 
     //Удаление пользователя
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @DeleteMapping("{id}")
-    public ResponseEntity<Object> delete(@PathVariable @Positive(message = "ID should be positive") Long id) {
+    public Mono<ResponseEntity<Object>> delete(@PathVariable @Positive(message = "ID should be positive") Long id) {
         log.info("Request to delete with id: {}", id);
         return userClient.delete(id);
     }
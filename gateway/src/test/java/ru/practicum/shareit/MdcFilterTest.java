@@ -0,0 +1,55 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.DispatcherType;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MdcFilterTest {
+    private final MdcFilter filter = new MdcFilter();
+
+    @Test
+    void filterShouldExposeRequestIdInMdcAndResponse() throws Exception {
+        AtomicReference<String> logged = new AtomicReference<>();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/items"), response,
+                (request, servletResponse) -> logged.set(MDC.get(Variables.MDC_REQUEST_ID)));
+
+        assertThat(logged.get()).isNotBlank().hasSizeLessThanOrEqualTo(13);
+        assertThat(response.getHeader(Variables.REQUEST_ID)).isEqualTo(logged.get());
+        assertThat(MDC.get(Variables.MDC_REQUEST_ID)).isNull();
+    }
+
+    @Test
+    void asyncDispatchShouldLogUnderRequestIdOfInitialDispatch() throws Exception {
+        AtomicReference<String> logged = new AtomicReference<>();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (servletRequest, servletResponse) -> {
+        });
+
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response,
+                (servletRequest, servletResponse) -> logged.set(MDC.get(Variables.MDC_REQUEST_ID)));
+
+        assertThat(logged.get()).isEqualTo(response.getHeader(Variables.REQUEST_ID));
+        assertThat(MDC.get(Variables.MDC_REQUEST_ID)).isNull();
+    }
+
+    @Test
+    void nextRequestIdShouldNotRepeat() {
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(MdcFilter.nextRequestId());
+        }
+        assertThat(ids).hasSize(10_000);
+    }
+}
@@ -9,10 +9,12 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusBatchDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.hamcrest.Matchers.aMapWithSize;
 import static org.hamcrest.Matchers.containsString;
@@ -57,6 +59,51 @@ class BookingControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void createBookingsShouldReturnOkWhenEveryEntryValid() throws Exception {
+        mockMvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(bookingDto, bookingDto)))
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void createBookingsShouldReturnBadRequestNamingInvalidEntry() throws Exception {
+        BookingDto past = BookingDto.builder()
+                .itemId(1L)
+                .start(LocalDateTime.now().minusDays(1L))
+                .end(LocalDateTime.now().plusHours(2L))
+                .build();
+
+        mockMvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(bookingDto, past)))
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Validation failed")))
+                .andExpect(jsonPath("$.errors['bookingDtos[1].start']", is("must be a date in the present or in the future")))
+                .andExpect((jsonPath("$.errors", aMapWithSize(1))));
+    }
+
+    @Test
+    void updateBookingStatusesShouldReturnBadRequestWhenIdsEmptyOrApprovedMissing() throws Exception {
+        mockMvc.perform(patch("/bookings/owner/status")
+                        .content(mapper.writeValueAsString(BookingStatusBatchDto.builder()
+                                .bookingIds(List.of()).build()))
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.bookingIds", is("must not be empty")))
+                .andExpect(jsonPath("$.errors.approved", is("must not be null")));
+    }
+
     @Test
     void createBookingShouldReturnBadRequestWhenBookingNull() throws Exception {
         long userId = 1L;
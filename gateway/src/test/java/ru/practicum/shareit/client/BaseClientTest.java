@@ -0,0 +1,253 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.practicum.shareit.Variables;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BaseClientTest {
+    private static final String ETAG = "W/\"0a1b\"";
+
+    private MockRestServiceServer server;
+    private BaseClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate rest = new RestTemplateBuilder()
+                .uriTemplateHandler(new DefaultUriBuilderFactory("http://server/items"))
+                .build();
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new BaseClient(rest, new ResponseCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)), null, false);
+    }
+
+    @Test
+    void getShouldServeCachedBodyWhenServerAnswersNotModified() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(ETAG);
+        server.expect(requestTo("http://server/items/1"))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON).headers(headers));
+        server.expect(requestTo("http://server/items/1"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        ResponseEntity<Object> first = client.get("/1", 1L).block();
+        ResponseEntity<Object> second = client.get("/1", 1L).block();
+
+        server.verify();
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(second.getBody()).isEqualTo(first.getBody()).isEqualTo(Map.of("id", 1));
+    }
+
+    @Test
+    void getShouldAnswerNotModifiedWhenClientHoldsValidatedEtag() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(ETAG);
+        server.expect(requestTo("http://server/items/1"))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON).headers(headers));
+        server.expect(requestTo("http://server/items/1"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+        client.get("/1", 1L).block();
+
+        ResponseEntity<Object> response = getWithClientEtag(ETAG);
+
+        server.verify();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void getShouldServeCachedBodyWhenClientEtagIsStale() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(ETAG);
+        server.expect(requestTo("http://server/items/1"))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON).headers(headers));
+        server.expect(requestTo("http://server/items/1"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+        client.get("/1", 1L).block();
+
+        ResponseEntity<Object> response = getWithClientEtag("W/\"9f8e\"");
+
+        server.verify();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(Map.of("id", 1));
+    }
+
+    @Test
+    void requestShouldPropagateRequestIdFromMdc() {
+        server.expect(requestTo("http://server/items/1"))
+                .andExpect(header(Variables.REQUEST_ID, "3w5e11264sgsf"))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON));
+
+        MDC.put(Variables.MDC_REQUEST_ID, "3w5e11264sgsf");
+        try {
+            client.patch("/1", 1L).block();
+        } finally {
+            MDC.remove(Variables.MDC_REQUEST_ID);
+        }
+
+        server.verify();
+    }
+
+    @Test
+    void getShouldKeepCacheEntriesApartPerUser() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(ETAG);
+        server.expect(requestTo("http://server/items/1"))
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON).headers(headers));
+        server.expect(requestTo("http://server/items/1"))
+                .andExpect(request -> assertThat(request.getHeaders().getIfNoneMatch()).isEmpty())
+                .andRespond(withSuccess("{\"id\":1}", MediaType.APPLICATION_JSON).headers(headers));
+
+        client.get("/1", 1L).block();
+        client.get("/1", 2L).block();
+
+        server.verify();
+    }
+
+    @Test
+    void getShouldUseWebClientInReactiveMode() {
+        List<ClientRequest> requests = new ArrayList<>();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .header(HttpHeaders.ETAG, ETAG)
+                            .body("{\"id\":1}")
+                            .build());
+                })
+                .build();
+        BaseClient reactiveClient = new BaseClient(new RestTemplateBuilder()
+                .uriTemplateHandler(new DefaultUriBuilderFactory("http://server/items"))
+                .build(), new ResponseCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)), webClient, false);
+
+        ResponseEntity<Object> response = reactiveClient.get("/1", 1L).block();
+        reactiveClient.get("/1", 1L).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(Map.of("id", 1));
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(0).url().toString()).isEqualTo("http://server/items/1");
+        assertThat(requests.get(0).headers().getFirst("X-Sharer-User-Id")).isEqualTo("1");
+        assertThat(requests.get(1).headers().getIfNoneMatch()).containsExactly(ETAG);
+    }
+
+    @Test
+    void responseShouldBeHandledUnderRequestIdInReactiveMode() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .body("{\"id\":1}")
+                                .build())
+                        .publishOn(Schedulers.single()))
+                .build();
+        BaseClient reactiveClient = new BaseClient(new RestTemplateBuilder()
+                .uriTemplateHandler(new DefaultUriBuilderFactory("http://server/items"))
+                .build(), new ResponseCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)), webClient, false);
+        AtomicReference<String> logged = new AtomicReference<>();
+
+        MDC.put(Variables.MDC_REQUEST_ID, "3w5e11264sgsf");
+        Mono<ResponseEntity<Object>> response;
+        try {
+            response = reactiveClient.get("/1", 1L);
+        } finally {
+            MDC.remove(Variables.MDC_REQUEST_ID);
+        }
+        response.doOnNext(entity -> logged.set(MDC.get(Variables.MDC_REQUEST_ID))).block();
+
+        assertThat(logged.get()).isEqualTo("3w5e11264sgsf");
+        assertThat(Mono.fromCallable(() -> Optional.ofNullable(MDC.get(Variables.MDC_REQUEST_ID)))
+                .subscribeOn(Schedulers.single())
+                .block()).isEmpty();
+    }
+
+    @Test
+    void postShouldPassServerErrorThroughInReactiveMode() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("{\"error\":\"not found\"}")
+                        .build()))
+                .build();
+        BaseClient reactiveClient = new BaseClient(new RestTemplateBuilder()
+                .uriTemplateHandler(new DefaultUriBuilderFactory("http://server/items"))
+                .build(), new ResponseCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)), webClient, false);
+
+        ResponseEntity<Object> response = reactiveClient.post("", 1L, Map.of("name", "drill")).block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(new String((byte[]) response.getBody())).isEqualTo("{\"error\":\"not found\"}");
+    }
+
+    @Test
+    void getShouldRelayServerBytesInPassthroughMode() {
+        RestTemplate rest = new RestTemplateBuilder()
+                .uriTemplateHandler(new DefaultUriBuilderFactory("http://server/bookings"))
+                .build();
+        MockRestServiceServer passthroughServer = MockRestServiceServer.bindTo(rest).build();
+        BaseClient passthroughClient = new BaseClient(rest,
+                new ResponseCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)), null, true);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(ETAG);
+        headers.set(HttpHeaders.CONNECTION, "keep-alive");
+        String body = "[{\"id\":1,\"status\":\"WAITING\"}]";
+        passthroughServer.expect(requestTo("http://server/bookings/owner"))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON).headers(headers));
+
+        ResponseEntity<Object> response = passthroughClient.get("/owner", 1L).block();
+
+        passthroughServer.verify();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isInstanceOf(byte[].class);
+        assertThat(new String((byte[]) response.getBody())).isEqualTo(body);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(response.getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONNECTION)).isFalse();
+    }
+
+    private ResponseEntity<Object> getWithClientEtag(String etag) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            return client.get("/1", 1L).block();
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
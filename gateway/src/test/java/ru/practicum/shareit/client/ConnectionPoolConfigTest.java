@@ -0,0 +1,39 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolConfigTest {
+
+    private final ConnectionPoolConfig config = new ConnectionPoolConfig();
+
+    @Test
+    void connectionManagerShouldApplyLimits() {
+        PoolingHttpClientConnectionManager connectionManager = config.serverConnectionManager(300, 200);
+
+        PoolStats stats = connectionManager.getTotalStats();
+        assertThat(stats.getMax()).isEqualTo(300);
+        assertThat(connectionManager.getDefaultMaxPerRoute()).isEqualTo(200);
+        connectionManager.close();
+    }
+
+    @Test
+    void metricsShouldExportPoolState() {
+        PoolingHttpClientConnectionManager connectionManager = config.serverConnectionManager(300, 200);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        config.serverConnectionPoolMetrics(connectionManager).bindTo(registry);
+
+        assertThat(registry.get("httpcomponents.httpclient.pool.total.max").gauge().value()).isEqualTo(300);
+        assertThat(registry.get("httpcomponents.httpclient.pool.total.connections").tag("state", "leased")
+                .gauge().value()).isZero();
+        assertThat(registry.get("httpcomponents.httpclient.pool.total.connections").tag("state", "available")
+                .gauge().value()).isZero();
+        assertThat(registry.get("httpcomponents.httpclient.pool.total.pending").gauge().value()).isZero();
+        connectionManager.close();
+    }
+}
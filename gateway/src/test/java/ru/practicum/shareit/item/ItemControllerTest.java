@@ -325,6 +325,28 @@ class ItemControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void searchItemsShouldReturnOkWhenWindowIsGiven() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .param("text", "search")
+                        .param("start", "2030-01-04T10:00:00")
+                        .param("end", "2030-01-06T18:00:00")
+                        .param("waiting", "true")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void searchItemsShouldReturnBadRequestWhenWindowHasNoEnd() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .param("text", "search")
+                        .param("start", "2030-01-04T10:00:00")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void searchItemsShouldReturnOkWhenTextIsBlank() throws Exception {
         mockMvc.perform(get("/items/search")
@@ -354,6 +376,54 @@ class ItemControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getCommentsShouldReturnOkWhenValidRequest() throws Exception {
+        mockMvc.perform(get("/items/{0}/comments", 1L)
+                        .param("size", "10")
+                        .param("cursor", "MTA")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getCommentsShouldReturnBadRequestWhenSizeIsZero() throws Exception {
+        mockMvc.perform(get("/items/{0}/comments", 1L)
+                        .param("size", "0")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAvailabilityShouldReturnOkWhenValidRequest() throws Exception {
+        mockMvc.perform(get("/items/{0}/availability", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-02T12:00:00")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getAvailabilityShouldReturnBadRequestWhenFromIsNotBeforeTo() throws Exception {
+        mockMvc.perform(get("/items/{0}/availability", 1L)
+                        .param("from", "2030-01-02T00:00:00")
+                        .param("to", "2030-01-01T00:00:00")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAvailabilityShouldReturnBadRequestWhenToIsMissing() throws Exception {
+        mockMvc.perform(get("/items/{0}/availability", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void saveCommentShouldReturnOkWhenValidRequest() throws Exception {
         long userId = 1L;
@@ -0,0 +1,30 @@
+#!/usr/bin/env bash
+# Compares the blocking and the reactive gateway client modes under the same load.
+# Starts the server on H2 (profile ci), seeds a user with an item and a booking,
+# then runs wrk against the gateway in each mode with CONNECTIONS open connections.
+#
+# Requires: java 11, maven, curl, wrk.
+# Usage: load/gateway-modes.sh [connections] [duration]
+set -euo pipefail
+
+CONNECTIONS=${1:-5000}
+DURATION=${2:-60s}
+THREADS=${THREADS:-8}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT=${OUT:-$ROOT/load/results}
+. "$ROOT/load/lib.sh"
+
+build
+start_server
+seed_bookings 1
+
+for mode in blocking reactive; do
+    start_gateway --shareit-gateway.client.mode="$mode"
+    for path in /items/1 /bookings/owner; do
+        name=$(echo "$path" | tr '/' '-')
+        echo "== $mode $path, $CONNECTIONS connections, $DURATION"
+        wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency --timeout 30s \
+            -H 'X-Sharer-User-Id: 1' "$GATEWAY$path" | tee "$OUT/$mode$name.txt"
+    done
+    stop_gateway
+done
@@ -0,0 +1,35 @@
+#!/usr/bin/env bash
+# Heap allocated by the gateway per request of /bookings/owner?size=100,
+# with JSON re-serialization and with byte passthrough.
+# The allocation is read from jvm.gc.memory.allocated, so each run is long enough for many young collections.
+#
+# Requires: java 11, maven, curl, wrk, python3.
+# Usage: load/gateway-passthrough.sh [duration]
+set -euo pipefail
+
+DURATION=${1:-60s}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT=${OUT:-$ROOT/load/results}
+. "$ROOT/load/lib.sh"
+
+URI=/bookings/owner
+build
+start_server
+seed_bookings 100
+
+for passthrough in false true; do
+    start_gateway --shareit-gateway.client.passthrough="$passthrough" \
+        --management.endpoints.web.exposure.include=health,metrics
+    wrk -t4 -c64 -d15s -H 'X-Sharer-User-Id: 1' "$GATEWAY$URI?size=100" > /dev/null
+
+    allocated=$(metric jvm.gc.memory.allocated)
+    requests=$(metric http.server.requests "uri:$URI")
+    wrk -t4 -c64 -d"$DURATION" --latency -H 'X-Sharer-User-Id: 1' "$GATEWAY$URI?size=100" \
+        | tee "$OUT/passthrough-$passthrough.txt"
+    allocated=$(python3 -c "print($(metric jvm.gc.memory.allocated) - $allocated)")
+    requests=$(python3 -c "print($(metric http.server.requests "uri:$URI") - $requests)")
+
+    python3 -c "print('passthrough=$passthrough: %.0f bytes allocated per request' % ($allocated / $requests))" \
+        | tee -a "$OUT/passthrough-$passthrough.txt"
+    stop_gateway
+done
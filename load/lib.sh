@@ -0,0 +1,76 @@
+# Shared helpers of the load scripts, sourced after ROOT and OUT are set.
+
+SERVER=http://localhost:9090
+GATEWAY=http://localhost:8080
+JSON='Content-Type: application/json'
+
+ulimit -n 65535 || echo "Could not raise the open files limit"
+mkdir -p "$OUT"
+
+pids=()
+cleanup() {
+    for pid in "${pids[@]}"; do
+        kill "$pid" 2>/dev/null || true
+    done
+}
+trap cleanup EXIT
+
+wait_for() {
+    for _ in $(seq 1 120); do
+        curl -s -o /dev/null "$1" && return 0
+        sleep 1
+    done
+    echo "$1 did not come up" >&2
+    exit 1
+}
+
+# The benchmarks profile also builds the load suite tools, the server jar then carries the exec classifier
+build() {
+    (cd "$ROOT" && mvn -B -q -P benchmarks -DskipTests package)
+}
+
+# Classpath of the load suite tools in the benchmarks module
+tools() {
+    java -cp "$ROOT/benchmarks/target/classes:$(cat "$ROOT/benchmarks/target/classpath.txt")" "$@"
+}
+
+# Server on H2 with the given extra arguments
+start_server() {
+    (cd "$OUT" && exec java -jar "$ROOT"/server/target/shareit-server-*-exec.jar --spring.profiles.active=ci "$@" \
+        > "$OUT/server.log" 2>&1) &
+    pids+=($!)
+    wait_for "$SERVER/users"
+}
+
+# Gateway with the given extra arguments, its pid is left in $gateway
+start_gateway() {
+    (cd "$OUT" && exec java -jar "$ROOT"/gateway/target/shareit-gateway-*.jar "$@" > "$OUT/gateway.log" 2>&1) &
+    gateway=$!
+    pids+=($gateway)
+    wait_for "$GATEWAY/actuator/health"
+}
+
+stop_gateway() {
+    kill "$gateway"
+    wait "$gateway" 2>/dev/null || true
+}
+
+# User 1 owns item 1, user 2 books it the given number of times on consecutive days
+seed_bookings() {
+    curl -s -H "$JSON" -d '{"name":"owner","email":"owner@load.test"}' "$SERVER/users" > /dev/null
+    curl -s -H "$JSON" -d '{"name":"booker","email":"booker@load.test"}' "$SERVER/users" > /dev/null
+    curl -s -H "$JSON" -H 'X-Sharer-User-Id: 1' \
+        -d '{"name":"drill","description":"cordless drill","available":true}' "$SERVER/items" > /dev/null
+    for day in $(seq 1 "$1"); do
+        start=$(date -d "+$day days" +%Y-%m-%dT%H:%M:%S)
+        end=$(date -d "+$day days 1 hour" +%Y-%m-%dT%H:%M:%S)
+        curl -s -H "$JSON" -H 'X-Sharer-User-Id: 2' \
+            -d "{\"itemId\":1,\"start\":\"$start\",\"end\":\"$end\"}" "$SERVER/bookings" > /dev/null
+    done
+}
+
+# Value of a gateway actuator metric, optionally narrowed by a tag
+metric() {
+    curl -s "$GATEWAY/actuator/metrics/$1${2:+?tag=$2}" \
+        | python3 -c 'import json, sys; print(json.load(sys.stdin)["measurements"][0]["value"])'
+}
@@ -0,0 +1,44 @@
+#!/usr/bin/env bash
+# End-to-end load suite: a synthetic Zipfian data set behind the server, the gateway in front,
+# and a closed-loop driver running the mix of search, owner item listings, item cards,
+# state-filtered booking lists, booking creation and approval.
+# Writes per endpoint throughput and latency percentiles to load/results/summary.json
+# and an HdrHistogram percentile distribution (*.hgrm) per endpoint.
+#
+# The data set lives in an H2 file database by default. Set DB_URL (with DB_USER and DB_PASSWORD)
+# to a local Postgres instead, e.g. DB_URL='jdbc:postgresql://localhost:5432/shareit?reWriteBatchedInserts=true'.
+# Set KEEP_DATA=1 to reuse the data set of the previous run.
+#
+# Requires: java 11, maven, curl.
+# Usage: load/suite.sh [concurrency] [duration]
+set -euo pipefail
+
+CONCURRENCY=${1:-64}
+DURATION=${2:-120s}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT=${OUT:-$ROOT/load/results}
+. "$ROOT/load/lib.sh"
+
+DB_URL=${DB_URL:-jdbc:h2:file:$OUT/shareit}
+DB_USER=${DB_USER:-test}
+DB_PASSWORD=${DB_PASSWORD:-test}
+POPULATION=(--users="${USERS:-1000000}" --owners="${OWNERS:-100000}" --items="${ITEMS:-1000000}"
+    --exponent="${EXPONENT:-1.1}")
+
+build
+if [ "${KEEP_DATA:-0}" != 1 ]; then
+    rm -f "$OUT"/shareit.*.db
+    tools ru.practicum.shareit.benchmarks.SyntheticData --url="$DB_URL" --username="$DB_USER" \
+        --password="$DB_PASSWORD" "${POPULATION[@]}" --bookings="${BOOKINGS:-3000000}" \
+        --comments="${COMMENTS:-1000000}"
+fi
+
+# the driver class is derived from the URL
+start_server --spring.datasource.url="$DB_URL" --spring.datasource.driver-class-name= \
+    --spring.datasource.username="$DB_USER" \
+    --spring.datasource.password="$DB_PASSWORD" --spring.sql.init.mode=never ${SERVER_ARGS:-}
+start_gateway ${GATEWAY_ARGS:-}
+
+tools ru.practicum.shareit.benchmarks.LoadDriver --gateway="$GATEWAY" --concurrency="$CONCURRENCY" \
+    --warmup="${WARMUP:-30s}" --duration="$DURATION" --out="$OUT" "${POPULATION[@]}"
+stop_gateway
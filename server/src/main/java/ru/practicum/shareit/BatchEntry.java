@@ -0,0 +1,25 @@
+package ru.practicum.shareit;
+
+import lombok.Value;
+
+/**
+ * Outcome of one entry of a batch request: the result, or the error the entry would have got on its own.
+ */
+@Value
+public class BatchEntry<T> {
+    int index;
+    T value;
+    RuntimeException error;
+
+    public static <T> BatchEntry<T> of(int index, T value) {
+        return new BatchEntry<>(index, value, null);
+    }
+
+    public static <T> BatchEntry<T> failed(int index, RuntimeException error) {
+        return new BatchEntry<>(index, null, error);
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+}
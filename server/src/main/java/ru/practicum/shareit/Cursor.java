@@ -0,0 +1,77 @@
+package ru.practicum.shareit;
+
+import lombok.Getter;
+import ru.practicum.shareit.exception.BadStateException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position: the sort key of the last row of a page.
+ * Booking lists are keyed by (start, id), comments by (created, id), items and requests by id.
+ */
+@Getter
+public class Cursor {
+    /**
+     * Later than any booking start, stands in for the missing cursor of a first descending page.
+     */
+    public static final LocalDateTime MAX_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime start;
+    private final long id;
+
+    private Cursor(LocalDateTime start, long id) {
+        this.start = start;
+        this.id = id;
+    }
+
+    public static Cursor of(long id) {
+        return new Cursor(null, id);
+    }
+
+    public static Cursor of(LocalDateTime start, long id) {
+        return new Cursor(start, id);
+    }
+
+    /**
+     * Position of a list keyed by (timestamp, id) descending: the given cursor, or one before every row
+     * for the first page. A cursor without timestamp belongs to another list and is rejected.
+     */
+    public static Cursor descending(Cursor after) {
+        if (after == null) {
+            return of(MAX_START, Long.MAX_VALUE);
+        }
+        if (after.getStart() == null) {
+            throw new BadStateException("Invalid cursor: {0}", after.encode());
+        }
+        return after;
+    }
+
+    /**
+     * Returns null for a blank value, which stands for the first page.
+     */
+    public static Cursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return of(Long.parseLong(decoded));
+            }
+            return of(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadStateException("Invalid cursor: {0}", value);
+        }
+    }
+
+    public String encode() {
+        String value = start == null ? String.valueOf(id) : start + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
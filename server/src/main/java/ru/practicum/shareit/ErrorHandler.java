@@ -5,6 +5,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.practicum.shareit.exception.BadStateException;
 import ru.practicum.shareit.exception.NotAvailableException;
 import ru.practicum.shareit.exception.NotFoundException;
 
@@ -31,4 +32,24 @@ public class ErrorHandler {
         log.info("Not available: {}", e.getMessage());
         return ErrorResponse.builder().error(e.getMessage()).build();
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleException(final BadStateException e) {
+        log.info("Bad request: {}", e.getMessage());
+        return ErrorResponse.builder().error(e.getMessage()).build();
+    }
+
+    /**
+     * Status the handlers above answer the error with, for errors reported per entry of a batch.
+     */
+    public static HttpStatus statusOf(RuntimeException e) {
+        if (e instanceof NotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (e instanceof NotAvailableException || e instanceof BadStateException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
 }
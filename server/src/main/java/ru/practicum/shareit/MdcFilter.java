@@ -1,37 +1,75 @@
 package ru.practicum.shareit;
 
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
 
+@Slf4j
+@RequiredArgsConstructor
 @Component
 public class MdcFilter extends OncePerRequestFilter {
 
-    private static int track;
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         String[] queries = request.getServletPath().split("/");
-        MDC.put("trackingNumber", String.valueOf(++track));
+        MDC.put(Variables.MDC_REQUEST_ID, requestId(request));
         if (queries.length > 1) {
             MDC.put("query", queries[1]);
         } else {
             MDC.put("query", "home");
         }
+        SqlStatementCounter.start();
         try {
             filterChain.doFilter(request, response);
         } finally {
-            MDC.remove("trackingNumber");
+            recordSqlCount(request, SqlStatementCounter.current());
+            SqlStatementCounter.stop();
+            MDC.remove(Variables.MDC_REQUEST_ID);
             MDC.remove("query");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Adopts the id the gateway assigned, so both hops log the same one. Direct calls get their own id.
+     */
+    static String requestId(HttpServletRequest request) {
+        String requestId = request.getHeader(Variables.REQUEST_ID);
+        if (requestId != null && !requestId.isEmpty() && requestId.length() <= MAX_REQUEST_ID_LENGTH) {
+            return requestId;
+        }
+        return Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, Character.MAX_RADIX);
+    }
+
+    private void recordSqlCount(HttpServletRequest request, int sqlCount) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        meterRegistry.ifAvailable(registry -> DistributionSummary.builder("shareit.sql.statements")
+                .description("SQL statements run per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(sqlCount));
+        log.debug("{} {} ran {} SQL statements", request.getMethod(), uri, sqlCount);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * List response written row by row as NDJSON, one JSON document per line, instead of a materialized array.
+ * The body starts with the first row. Until then the response stays typed as JSON, so that an error raised
+ * before it is written by the error handler as for any other endpoint, whatever the client accepts.
+ * Content caching of the ETag filter is switched off for it, the filter would buffer the whole body to hash it.
+ */
+public class NdjsonResponse {
+    private final ObjectWriter writer;
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private OutputStream out;
+
+    public NdjsonResponse(ObjectMapper objectMapper, HttpServletRequest request, HttpServletResponse response) {
+        this.writer = objectMapper.writer();
+        this.request = request;
+        this.response = response;
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    }
+
+    public void write(Object row) {
+        try {
+            OutputStream body = start();
+            body.write(writer.writeValueAsBytes(row));
+            body.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Flushes the rest of the body, an empty list is answered with an empty body.
+     */
+    public void finish() throws IOException {
+        start().flush();
+    }
+
+    private OutputStream start() throws IOException {
+        if (out == null) {
+            ShallowEtagHeaderFilter.disableContentCaching(request);
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            out = response.getOutputStream();
+        }
+        return out;
+    }
+}
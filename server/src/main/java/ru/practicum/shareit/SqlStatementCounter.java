@@ -0,0 +1,39 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.MDC;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current request thread
+ * and mirrors the running total into the {@code sqlCount} MDC key, so N+1 loads show up in every log line.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    public static final String MDC_KEY = "sqlCount";
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    public static void start() {
+        COUNT.set(new int[1]);
+        MDC.put(MDC_KEY, "0");
+    }
+
+    public static int current() {
+        int[] count = COUNT.get();
+        return count == null ? 0 : count[0];
+    }
+
+    public static int stop() {
+        int count = current();
+        COUNT.remove();
+        MDC.remove(MDC_KEY);
+        return count;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            MDC.put(MDC_KEY, String.valueOf(++count[0]));
+        }
+        return sql;
+    }
+}
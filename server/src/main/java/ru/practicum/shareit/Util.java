@@ -2,10 +2,42 @@ package ru.practicum.shareit;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 public class Util {
     public static Pageable getPageable(int from, int size) {
         int page = from / size;
         return PageRequest.of(page, size);
     }
+
+    /**
+     * Wraps a keyset page, the cursor of its last row goes to the X-Next-Cursor header while more rows remain.
+     */
+    public static <T, D> ResponseEntity<List<D>> toCursorResponse(Slice<T> slice, List<D> body,
+                                                                  Function<T, Cursor> cursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (slice.hasNext()) {
+            T last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            response.header(Variables.NEXT_CURSOR, cursor.apply(last).encode());
+        }
+        return response.body(body);
+    }
+
+    /**
+     * List queries fetch pages without counting, the total is counted only for clients that ask for it.
+     */
+    public static <T> ResponseEntity<T> withTotalCount(ResponseEntity<T> response, boolean total, LongSupplier count) {
+        if (!total) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(Variables.TOTAL_COUNT, String.valueOf(count.getAsLong()))
+                .body(response.getBody());
+    }
 }
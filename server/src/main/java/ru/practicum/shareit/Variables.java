@@ -2,6 +2,11 @@ package ru.practicum.shareit;
 
 public class Variables {
     public static final String USER_ID = "X-Sharer-User-Id";
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+    public static final String TOTAL_COUNT = "X-Total-Count";
+    public static final String SQL_COUNT = "X-Sql-Count";
+    public static final String REQUEST_ID = "X-Request-Id";
+    public static final String MDC_REQUEST_ID = "requestId";
     public static final String USER_WITH_ID_NOT_HAVE_AVAILABLE = "User with id: {0} do not have available";
     public static final String USER_WITH_ID_NOT_FOUND = "User with ID: {0} not found";
 }
@@ -1,7 +1,13 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,14 +17,23 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.BatchEntry;
+import ru.practicum.shareit.Cursor;
+import ru.practicum.shareit.ErrorHandler;
+import ru.practicum.shareit.NdjsonResponse;
 import ru.practicum.shareit.Util;
 import ru.practicum.shareit.Variables;
+import ru.practicum.shareit.booking.dto.BookingBatchEntryDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusBatchDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.item.model.Item;
 
-import java.util.Collections;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -28,6 +43,7 @@ import java.util.stream.Collectors;
 public class BookingController {
     private final BookingMapper bookingMapper;
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingDto createBooking(@RequestHeader(Variables.USER_ID) Long userId,
@@ -45,6 +61,29 @@ public class BookingController {
         return bookingMapper.toDto(booking);
     }
 
+    // Пакетное создание бронирований в одной транзакции: ошибка одной записи
+    // возвращается в её результате и не мешает остальным
+    @PostMapping("/batch")
+    public List<BookingBatchEntryDto> createBookings(@RequestHeader(Variables.USER_ID) Long userId,
+                                                     @RequestBody List<BookingDto> bookingDtos) {
+        List<Booking> bookings = bookingDtos.stream()
+                .map(bookingDto -> {
+                    Booking booking = bookingMapper.fromDto(bookingDto);
+                    booking.setItem(Item.builder().id(bookingDto.getItemId()).build());
+                    return booking;
+                })
+                .collect(Collectors.toList());
+        return toEntryDtos(bookingService.createBookings(bookings, userId));
+    }
+
+    // Пакетное подтверждение или отклонение бронирований владельцем одним UPDATE
+    @PatchMapping("/owner/status")
+    public List<BookingBatchEntryDto> updateBookingStatuses(@RequestHeader(Variables.USER_ID) Long userId,
+                                                            @RequestBody BookingStatusBatchDto statusDto) {
+        return toEntryDtos(bookingService.updateBookingStatuses(statusDto.getBookingIds(), statusDto.getApproved(),
+                userId));
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBooking(@RequestHeader(Variables.USER_ID) Long userId,
                                                  @PathVariable Long bookingId) {
@@ -53,31 +92,78 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getBookerBookings(@RequestHeader(Variables.USER_ID) Long userId,
+    public ResponseEntity<List<BookingDto>> getBookerBookings(@RequestHeader(Variables.USER_ID) Long userId,
                                                               @RequestParam(defaultValue = "ALL") String state,
                                                               @RequestParam(defaultValue = "0") int from,
-                                                              @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = Util.getPageable(from, size);
-        List<Booking> bookings = bookingService.getBookerBookings(userId, BookingState.get(state), pageable);
-        if (bookings.size() < 1) {
-            return Collections.emptyList();
+                                                              @RequestParam(defaultValue = "20") int size,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "false") boolean total) {
+        BookingState bookingState = BookingState.get(state);
+        ResponseEntity<List<BookingDto>> response;
+        if (cursor != null) {
+            Slice<BookingView> bookings = bookingService.getBookerBookingViews(userId, bookingState,
+                    Cursor.decode(cursor), PageRequest.of(0, size));
+            response = Util.toCursorResponse(bookings, toDtos(bookings.getContent()),
+                    booking -> Cursor.of(booking.getStart(), booking.getId()));
+        } else {
+            Pageable pageable = Util.getPageable(from, size);
+            response = ResponseEntity.ok(toDtos(bookingService.getBookerBookingViews(userId, bookingState, null,
+                    pageable).getContent()));
         }
-        User booker = bookings.get(0).getBooker();
-        return bookings.stream()
-                .map(booking -> bookingMapper.toDtoWithUser(booking, booker))
-                .collect(Collectors.toList());
+        return Util.withTotalCount(response, total, () -> bookingService.countBookerBookings(userId, bookingState));
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getOwnerBookings(@RequestHeader(Variables.USER_ID) Long userId,
+    public ResponseEntity<List<BookingDto>> getOwnerBookings(@RequestHeader(Variables.USER_ID) Long userId,
                                                              @RequestParam(defaultValue = "ALL") String state,
                                                              @RequestParam(defaultValue = "0") int from,
-                                                             @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = Util.getPageable(from, size);
-        return bookingService.getOwnerBookings(userId, BookingState.get(state), pageable)
-                .stream()
+                                                             @RequestParam(defaultValue = "20") int size,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "false") boolean total) {
+        BookingState bookingState = BookingState.get(state);
+        ResponseEntity<List<BookingDto>> response;
+        if (cursor != null) {
+            Slice<BookingView> bookings = bookingService.getOwnerBookingViews(userId, bookingState,
+                    Cursor.decode(cursor), PageRequest.of(0, size));
+            response = Util.toCursorResponse(bookings, toDtos(bookings.getContent()),
+                    booking -> Cursor.of(booking.getStart(), booking.getId()));
+        } else {
+            Pageable pageable = Util.getPageable(from, size);
+            response = ResponseEntity.ok(toDtos(bookingService.getOwnerBookingViews(userId, bookingState, null,
+                    pageable).getContent()));
+        }
+        return Util.withTotalCount(response, total, () -> bookingService.countOwnerBookings(userId, bookingState));
+    }
+
+    // Потоковая выдача бронирований владельца в NDJSON для больших размеров страницы:
+    // строки пишутся в ответ по мере чтения из базы, без списка в памяти
+    @GetMapping(path = "/owner", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamOwnerBookings(@RequestHeader(Variables.USER_ID) Long userId,
+                                    @RequestParam(defaultValue = "ALL") String state,
+                                    @RequestParam(defaultValue = "20") int size,
+                                    @RequestParam(required = false) String cursor,
+                                    HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BookingState bookingState = BookingState.get(state);
+        NdjsonResponse body = new NdjsonResponse(objectMapper, request, response);
+        bookingService.streamOwnerBookingViews(userId, bookingState, Cursor.decode(cursor), size,
+                booking -> body.write(bookingMapper.toDto(booking)));
+        body.finish();
+    }
+
+    private List<BookingBatchEntryDto> toEntryDtos(List<BatchEntry<Booking>> entries) {
+        return entries.stream()
+                .map(entry -> entry.isFailed()
+                        ? BookingBatchEntryDto.builder().index(entry.getIndex())
+                        .status(ErrorHandler.statusOf(entry.getError()).value())
+                        .error(entry.getError().getMessage()).build()
+                        : BookingBatchEntryDto.builder().index(entry.getIndex()).status(HttpStatus.OK.value())
+                        .booking(bookingMapper.toDto(entry.getValue())).build())
+                .collect(Collectors.toList());
+    }
+
+    private List<BookingDto> toDtos(List<BookingView> bookings) {
+        return bookings.stream()
                 .map(bookingMapper::toDto)
                 .collect(Collectors.toList());
     }
 }
-
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemAvailabilityRepository;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Loads bookings kept elsewhere, such as those of a system being migrated, a chunk per transaction.
+ * Ids come from the sequence in blocks, so each chunk is written in JDBC batches rather than a statement
+ * per booking, and neither the persistence context nor a transaction grows with the input.
+ */
+@Slf4j
+@Service
+public class BookingImportService {
+    private final BookingRepository bookingRepository;
+    private final ItemAvailabilityRepository availabilityRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final int chunkSize;
+
+    public BookingImportService(BookingRepository bookingRepository,
+                                ItemAvailabilityRepository availabilityRepository,
+                                ItemBookingSummaryService itemBookingSummaryService,
+                                @Value("${shareit.booking.import.chunk-size:10000}") int chunkSize) {
+        this.bookingRepository = bookingRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.itemBookingSummaryService = itemBookingSummaryService;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Writes the bookings as given, each naming its item, booker and owner by id only, and returns their number.
+     * They are not checked the way booking requests are: on PostgreSQL the database still turns away overlapping
+     * approved ones, failing the chunk. Summaries are rebuilt at the end, calendars on their next read.
+     */
+    public long importBookings(Stream<Booking> bookings) {
+        long imported = 0;
+        List<Booking> chunk = new ArrayList<>(chunkSize);
+        Iterator<Booking> iterator = bookings.iterator();
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                bookingRepository.saveAll(chunk);
+                imported += chunk.size();
+                chunk.clear();
+            }
+        }
+        availabilityRepository.deleteAllInBatch();
+        itemBookingSummaryService.rebuild();
+        log.info("Bookings imported: {}", imported);
+        return imported;
+    }
+}
@@ -1,18 +1,51 @@
 package ru.practicum.shareit.booking;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.BatchEntry;
+import ru.practicum.shareit.Cursor;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingView;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     Booking createBooking(Booking booking, Long userId, long itemId);
 
     Booking updateBookingStatus(Long bookingId, Boolean approved, Long userId);
 
+    /**
+     * Creates the bookings of the booker in one transaction, each booking naming its item by id only.
+     * An entry that fails its checks is reported in its result and does not stop the others.
+     */
+    List<BatchEntry<Booking>> createBookings(List<Booking> bookings, Long userId);
+
+    /**
+     * Approves or rejects the waiting bookings of the owner in one transaction with a single update.
+     * An entry that fails its checks is reported in its result and does not stop the others.
+     */
+    List<BatchEntry<Booking>> updateBookingStatuses(List<Long> bookingIds, boolean approved, Long userId);
+
     Booking getBookingById(Long bookingId, Long userId);
 
-    List<Booking> getBookerBookings(Long userId, BookingState state, Pageable pageable);
+    /**
+     * Read-only listing of the booker, the first page when after is null.
+     */
+    Slice<BookingView> getBookerBookingViews(Long userId, BookingState state, Cursor after, Pageable pageable);
+
+    /**
+     * Read-only listing of the owner, the first page when after is null.
+     */
+    Slice<BookingView> getOwnerBookingViews(Long userId, BookingState state, Cursor after, Pageable pageable);
+
+    /**
+     * The same listing of up to size rows, passed to the action one by one as they are read.
+     */
+    void streamOwnerBookingViews(Long userId, BookingState state, Cursor after, int size,
+                                 Consumer<BookingView> action);
+
+    long countBookerBookings(Long userId, BookingState state);
 
-    List<Booking> getOwnerBookings(Long userId, BookingState state, Pageable pageable);
+    long countOwnerBookings(Long userId, BookingState state);
 }
@@ -1,21 +1,41 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.BatchEntry;
+import ru.practicum.shareit.Cursor;
 import ru.practicum.shareit.Variables;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ShortBookingView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadStateException;
 import ru.practicum.shareit.exception.NotAvailableException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.OwnedItemView;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserView;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Service
@@ -24,115 +44,239 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final ItemAvailabilityService itemAvailabilityService;
+
+    @Value("${shareit.booking.batch-max-size:100}")
+    private int batchMaxSize;
 
     @Override
     public Booking createBooking(Booking booking, Long userId, long itemId) {
         User user = returnUserOrThrowException(userId);
         Item item = returnItemOrThrowException(itemId);
-        if (user.getId() == item.getOwner().getId()) {
-            throw new NotFoundException("You owner");
-        }
+        checkNotOwner(user, item);
+        checkNoApprovedOverlap(item.getId(), booking.getStart(), booking.getEnd());
         booking.setStatus(BookingStatus.WAITING);
         booking.setItem(item);
         booking.setBooker(user);
+        booking.setOwner(item.getOwner());
         booking = bookingRepository.save(booking);
         return booking;
     }
 
     @Override
+    @Transactional
     public Booking updateBookingStatus(Long bookingId, Boolean approved, Long userId) {
         Booking booking = returnBookingOrThrowException(bookingId);
-        Item item = booking.getItem();
-        if (userId != item.getOwner().getId()) {
+        if (userId != booking.getOwner().getId()) {
             throw new NotFoundException(Variables.USER_WITH_ID_NOT_HAVE_AVAILABLE, userId);
         }
         if (booking.getStatus() != BookingStatus.WAITING) {
             throw new NotAvailableException("Booking already considered");
         }
         if (approved) {
+            itemBookingSummaryService.lock(booking.getItem().getId(), booking.getOwner().getId());
+            checkNoApprovedOverlap(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+            itemAvailabilityService.book(booking.getItem().getId(), booking.getStart(), booking.getEnd());
             booking.setStatus(BookingStatus.APPROVED);
         } else {
             booking.setStatus(BookingStatus.REJECTED);
         }
         booking = bookingRepository.save(booking);
+        if (approved) {
+            itemBookingSummaryService.refresh(booking.getItem().getId(), booking.getOwner().getId());
+        }
         return booking;
     }
 
+    @Override
+    @Transactional
+    public List<BatchEntry<Booking>> createBookings(List<Booking> bookings, Long userId) {
+        checkBatchSize(bookings.size());
+        User user = returnUserOrThrowException(userId);
+        Set<Long> itemIds = bookings.stream().map(booking -> booking.getItem().getId()).collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, TreeMap<LocalDateTime, LocalDateTime>> taken = approvedWithin(items.keySet(), bookings);
+        List<BatchEntry<Booking>> entries = new ArrayList<>(bookings.size());
+        List<Booking> created = new ArrayList<>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            long itemId = booking.getItem().getId();
+            try {
+                Item item = items.get(itemId);
+                if (item == null) {
+                    throw new NotFoundException("Item with ID: {0} not found", itemId);
+                }
+                if (!item.getAvailable()) {
+                    throw new NotAvailableException("Item with ID: {0} not available", itemId);
+                }
+                checkNotOwner(user, item);
+                checkNoOverlap(itemId, booking, taken.get(itemId));
+                booking.setStatus(BookingStatus.WAITING);
+                booking.setItem(item);
+                booking.setBooker(user);
+                booking.setOwner(item.getOwner());
+                created.add(booking);
+                entries.add(BatchEntry.of(i, booking));
+            } catch (NotFoundException | NotAvailableException e) {
+                entries.add(BatchEntry.failed(i, e));
+            }
+        }
+        bookingRepository.saveAll(created);
+        return entries;
+    }
+
+    /**
+     * Items are locked one by one in id order, so that two batches of the same owner, or a batch and
+     * the roller of the summaries, can not deadlock.
+     * Bookings of an item are approved in start order, each checked against the approved ones and those
+     * approved before it in the batch. The entities are only changed after the single update has run,
+     * so that they are not flushed one by one.
+     */
+    @Override
+    @Transactional
+    public List<BatchEntry<Booking>> updateBookingStatuses(List<Long> bookingIds, boolean approved, Long userId) {
+        checkBatchSize(bookingIds.size());
+        Map<Long, Booking> bookings = bookingRepository.findByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<BatchEntry<Booking>> entries = new ArrayList<>(bookingIds.size());
+        Map<Long, List<Booking>> waiting = new TreeMap<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < bookingIds.size(); i++) {
+            Long bookingId = bookingIds.get(i);
+            Booking booking = bookings.get(bookingId);
+            entries.add(booking == null
+                    ? BatchEntry.failed(i, new NotFoundException("Booking with ID: {0} not found", bookingId))
+                    : BatchEntry.of(i, booking));
+            if (booking == null) {
+                continue;
+            }
+            if (userId != booking.getOwner().getId()) {
+                entries.set(i, BatchEntry.failed(i,
+                        new NotFoundException(Variables.USER_WITH_ID_NOT_HAVE_AVAILABLE, userId)));
+            } else if (booking.getStatus() != BookingStatus.WAITING || !seen.add(bookingId)) {
+                entries.set(i, BatchEntry.failed(i, new NotAvailableException("Booking already considered")));
+            } else {
+                waiting.computeIfAbsent(booking.getItem().getId(), itemId -> new ArrayList<>()).add(booking);
+            }
+        }
+        Set<Long> refused = new HashSet<>();
+        if (approved) {
+            for (Map.Entry<Long, List<Booking>> item : waiting.entrySet()) {
+                refused.addAll(approve(item.getKey(), userId, item.getValue(), entries, bookingIds));
+            }
+        }
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        List<Booking> changed = waiting.values().stream()
+                .flatMap(List::stream)
+                .filter(booking -> !refused.contains(booking.getId()))
+                .collect(Collectors.toList());
+        if (!changed.isEmpty()) {
+            bookingRepository.updateStatusByIdIn(changed.stream().map(Booking::getId).collect(Collectors.toList()),
+                    status, BookingStatus.WAITING);
+        }
+        changed.forEach(booking -> booking.setStatus(status));
+        if (approved) {
+            changed.stream().map(booking -> booking.getItem().getId()).distinct()
+                    .forEach(itemId -> itemBookingSummaryService.refresh(itemId, userId));
+        }
+        return entries;
+    }
+
     @Override
     public Booking getBookingById(Long bookingId, Long userId) {
         Booking booking = returnBookingOrThrowException(bookingId);
-        Item item = booking.getItem();
         User booker = booking.getBooker();
-        if (userId != item.getOwner().getId() && userId != booker.getId()) {
+        if (userId != booking.getOwner().getId() && userId != booker.getId()) {
             throw new NotFoundException(Variables.USER_WITH_ID_NOT_HAVE_AVAILABLE, userId);
         }
         return booking;
     }
 
     @Override
-    public List<Booking> getBookerBookings(Long userId, BookingState state, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Slice<BookingView> getBookerBookingViews(Long userId, BookingState state, Cursor after,
+                                                    Pageable pageable) {
+        returnUserOrThrowException(userId);
+        StateFilter filter = StateFilter.of(state, LocalDateTime.now());
+        Cursor cursor = Cursor.descending(after);
+        return bookingRepository.findViewsByBooker(userId, filter.startAfter, filter.startUntil, filter.endFrom,
+                filter.endUntil, filter.statuses, cursor.getStart(), cursor.getId(), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookingView> getOwnerBookingViews(Long userId, BookingState state, Cursor after,
+                                                   Pageable pageable) {
+        returnUserOrThrowException(userId);
+        StateFilter filter = StateFilter.of(state, LocalDateTime.now());
+        Cursor cursor = Cursor.descending(after);
+        return bookingRepository.findViewsByOwner(userId, filter.startAfter, filter.startUntil, filter.endFrom,
+                filter.endUntil, filter.statuses, cursor.getStart(), cursor.getId(), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamOwnerBookingViews(Long userId, BookingState state, Cursor after, int size,
+                                        Consumer<BookingView> action) {
+        returnUserOrThrowException(userId);
+        StateFilter filter = StateFilter.of(state, LocalDateTime.now());
+        Cursor cursor = Cursor.descending(after);
+        try (Stream<BookingView> bookings = bookingRepository.streamViewsByOwner(userId, filter.startAfter,
+                filter.startUntil, filter.endFrom, filter.endUntil, filter.statuses, cursor.getStart(),
+                cursor.getId(), PageRequest.of(0, size))) {
+            bookings.forEach(action);
+        }
+    }
+
+    @Override
+    public long countBookerBookings(Long userId, BookingState state) {
         User booker = returnUserOrThrowException(userId);
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings;
         switch (state) {
             case ALL:
-                bookings = bookingRepository.findByBookerOrderByStartDesc(booker, pageable).toList();
-                break;
+                return bookingRepository.countByBooker(booker);
             case CURRENT:
-                bookings = bookingRepository.findByBookerAndStartBeforeAndEndAfter(booker, now, pageable).toList();
-                break;
+                return bookingRepository.countByBookerAndStartLessThanEqualAndEndGreaterThanEqual(booker, now, now);
             case PAST:
-                bookings = bookingRepository.findByBookerAndEndDateBeforeOrderByStartDesc(booker, now, pageable).toList();
-                break;
+                return bookingRepository.countByBookerAndEndLessThanEqual(booker, now);
             case FUTURE:
-                bookings = bookingRepository.findByBookerAndStartDateAfterOrderByStartDesc(booker, now, pageable).toList();
-                break;
+                return bookingRepository.countByBookerAndStartAfter(booker, now);
             case WAITING:
-                bookings = bookingRepository.findByBookerAndStatus(booker, BookingStatus.WAITING, pageable).toList();
-                break;
+                return bookingRepository.countByBookerAndStatus(booker, BookingStatus.WAITING);
             case REJECTED:
-                bookings = bookingRepository.findByBookerAndStatus(booker, BookingStatus.REJECTED, pageable).toList();
-                break;
+                return bookingRepository.countByBookerAndStatus(booker, BookingStatus.REJECTED);
             default:
                 throw new BadStateException("Unknown state");
         }
-        return bookings;
     }
 
     @Override
-    public List<Booking> getOwnerBookings(Long userId, BookingState state, Pageable pageable) {
+    public long countOwnerBookings(Long userId, BookingState state) {
         User owner = returnUserOrThrowException(userId);
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings;
         switch (state) {
             case ALL:
-                bookings = bookingRepository.findByOwnerOrderByStartDesc(owner, pageable).toList();
-                break;
+                return bookingRepository.countByOwner(owner);
             case CURRENT:
-                bookings = bookingRepository.findByOwnerAndStartBeforeAndEndAfterOrder(owner, now, pageable).toList();
-                break;
+                return bookingRepository.countByOwnerAndStartLessThanEqualAndEndGreaterThanEqual(owner, now, now);
             case PAST:
-                bookings = bookingRepository.findByOwnerAndEndDateBeforeOrderByStartDesc(owner, now, pageable).toList();
-                break;
+                return bookingRepository.countByOwnerAndEndLessThanEqual(owner, now);
             case FUTURE:
-                bookings = bookingRepository.findByOwnerAndStartDateAfterOrderByStartDesc(owner, now, pageable).toList();
-                break;
+                return bookingRepository.countByOwnerAndStartAfter(owner, now);
             case WAITING:
-                bookings = bookingRepository.findByOwnerAndStatus(owner, BookingStatus.WAITING, pageable).toList();
-                break;
+                return bookingRepository.countByOwnerAndStatus(owner, BookingStatus.WAITING);
             case REJECTED:
-                bookings = bookingRepository.findByOwnerAndStatus(owner, BookingStatus.REJECTED, pageable).toList();
-                break;
+                return bookingRepository.countByOwnerAndStatus(owner, BookingStatus.REJECTED);
             default:
-                    throw new BadStateException("Unknown state");
+                throw new BadStateException("Unknown state");
         }
-
-        return bookings;
     }
 
 
     private Item returnItemOrThrowException(long itemId) {
-        Item item = itemRepository.findById(itemId)
+        Item item = itemRepository.findViewById(itemId).map(OwnedItemView::toItem)
                 .orElseThrow(() -> new NotFoundException("Item with ID: {0} not found", itemId));
         if (!item.getAvailable()) {
             throw new NotAvailableException("Item with ID: {0} not available", item.getId());
@@ -140,13 +284,137 @@ public class BookingServiceImpl implements BookingService {
         return item;
     }
 
+    /**
+     * Approved bookings of an item must not overlap. On creation this only turns away a request that could
+     * never be approved; approval checks again holding the item lock, which makes the check authoritative.
+     */
+    private void checkNoApprovedOverlap(long itemId, LocalDateTime start, LocalDateTime end) {
+        bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(itemId, BookingStatus.APPROVED,
+                        end)
+                .filter(approved -> approved.getEnd().isAfter(start))
+                .ifPresent(approved -> {
+                    throw new NotAvailableException("Item with ID: {0} is already booked from {1} to {2}", itemId,
+                            approved.getStart(), approved.getEnd());
+                });
+    }
+
+    /**
+     * Locks the item and marks the hours of its bookings that do not overlap an approved one.
+     * Returns the ids of the refused bookings, whose entries are replaced with the error.
+     */
+    private Set<Long> approve(long itemId, long ownerId, List<Booking> bookings, List<BatchEntry<Booking>> entries,
+                              List<Long> bookingIds) {
+        itemBookingSummaryService.lock(itemId, ownerId);
+        TreeMap<LocalDateTime, LocalDateTime> taken = approvedWithin(Set.of(itemId), bookings)
+                .getOrDefault(itemId, new TreeMap<>());
+        bookings.sort(Comparator.comparing(Booking::getStart).thenComparing(Booking::getId));
+        Set<Long> refused = new HashSet<>();
+        for (Booking booking : bookings) {
+            try {
+                checkNoOverlap(itemId, booking, taken);
+                taken.put(booking.getStart(), booking.getEnd());
+                itemAvailabilityService.book(itemId, booking.getStart(), booking.getEnd());
+            } catch (NotAvailableException e) {
+                refused.add(booking.getId());
+                int index = bookingIds.indexOf(booking.getId());
+                entries.set(index, BatchEntry.failed(index, e));
+            }
+        }
+        return refused;
+    }
+
+    /**
+     * Approved bookings of the items over the span of the given bookings, start to end by item.
+     * Approved bookings of an item do not overlap, so each is told apart by its start.
+     */
+    private Map<Long, TreeMap<LocalDateTime, LocalDateTime>> approvedWithin(Set<Long> itemIds,
+                                                                           List<Booking> bookings) {
+        Map<Long, TreeMap<LocalDateTime, LocalDateTime>> taken = new TreeMap<>();
+        if (itemIds.isEmpty() || bookings.isEmpty()) {
+            return taken;
+        }
+        LocalDateTime from = bookings.stream().map(Booking::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = bookings.stream().map(Booking::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+        for (ShortBookingView approved : bookingRepository.findViewsByItemIdInAndStatusBetween(itemIds,
+                BookingStatus.APPROVED, from, to)) {
+            taken.computeIfAbsent(approved.getItemId(), itemId -> new TreeMap<>())
+                    .put(approved.getStart(), approved.getEnd());
+        }
+        return taken;
+    }
+
+    /**
+     * The same check as {@link #checkNoApprovedOverlap} against approved bookings already read: only the
+     * latest one starting before the end can overlap.
+     */
+    private void checkNoOverlap(long itemId, Booking booking, TreeMap<LocalDateTime, LocalDateTime> taken) {
+        Map.Entry<LocalDateTime, LocalDateTime> approved = taken == null ? null : taken.lowerEntry(booking.getEnd());
+        if (approved != null && approved.getValue().isAfter(booking.getStart())) {
+            throw new NotAvailableException("Item with ID: {0} is already booked from {1} to {2}", itemId,
+                    approved.getKey(), approved.getValue());
+        }
+    }
+
+    private void checkNotOwner(User user, Item item) {
+        if (user.getId() == item.getOwner().getId()) {
+            throw new NotFoundException("You owner");
+        }
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > batchMaxSize) {
+            throw new BadStateException("A batch takes at most {0} entries, got {1}", batchMaxSize, size);
+        }
+    }
+
     private Booking returnBookingOrThrowException(Long bookingId) {
         return bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Booking with ID: {0} not found", bookingId));
     }
 
     private User returnUserOrThrowException(Long userId) {
-        return userRepository.findById(userId)
+        return userRepository.findViewById(userId).map(UserView::toUser)
                 .orElseThrow(() -> new NotFoundException(Variables.USER_WITH_ID_NOT_FOUND, userId));
     }
+
+    /**
+     * Bounds of a booking state: start in (startAfter, startUntil], end in [endFrom, endUntil], status in statuses.
+     */
+    private static final class StateFilter {
+        private static final LocalDateTime MIN = LocalDateTime.of(1970, 1, 1, 0, 0);
+        private static final List<BookingStatus> ANY_STATUS = List.of(BookingStatus.values());
+
+        private LocalDateTime startAfter = MIN;
+        private LocalDateTime startUntil = Cursor.MAX_START;
+        private LocalDateTime endFrom = MIN;
+        private LocalDateTime endUntil = Cursor.MAX_START;
+        private List<BookingStatus> statuses = ANY_STATUS;
+
+        private static StateFilter of(BookingState state, LocalDateTime now) {
+            StateFilter filter = new StateFilter();
+            switch (state) {
+                case ALL:
+                    break;
+                case CURRENT:
+                    filter.startUntil = now;
+                    filter.endFrom = now;
+                    break;
+                case PAST:
+                    filter.endUntil = now;
+                    break;
+                case FUTURE:
+                    filter.startAfter = now;
+                    break;
+                case WAITING:
+                    filter.statuses = List.of(BookingStatus.WAITING);
+                    break;
+                case REJECTED:
+                    filter.statuses = List.of(BookingStatus.REJECTED);
+                    break;
+                default:
+                    throw new BadStateException("Unknown state");
+            }
+            return filter;
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.AvailabilityInterval;
+import ru.practicum.shareit.booking.model.ItemAvailability;
+import ru.practicum.shareit.booking.model.ShortBookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemAvailabilityRepository;
+import ru.practicum.shareit.exception.BadStateException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Keeps the hours taken by approved bookings of every item in {@code item_availability} for a rolling
+ * horizon from the start of the current day, so that a calendar read costs the hours it spans
+ * instead of a scan over the bookings. Reads never write: the bitmap of an item is built or moved on
+ * to the new day in the background after a read missed it, or by the next approval, which marks its hours.
+ */
+@Service
+public class ItemAvailabilityService {
+    private final ItemAvailabilityRepository availabilityRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final int horizonDays;
+    /**
+     * Owner ids of the items whose bitmap a read missed, keyed by item id.
+     */
+    private final Map<Long, Long> missed = new ConcurrentHashMap<>();
+
+    public ItemAvailabilityService(ItemAvailabilityRepository availabilityRepository,
+                                   BookingRepository bookingRepository,
+                                   ItemBookingSummaryService itemBookingSummaryService,
+                                   @Value("${shareit.item.availability.horizon-days:90}") int horizonDays) {
+        this.availabilityRepository = availabilityRepository;
+        this.bookingRepository = bookingRepository;
+        this.itemBookingSummaryService = itemBookingSummaryService;
+        this.horizonDays = horizonDays;
+    }
+
+    /**
+     * Free and busy intervals of the item between from and to, busy ones rounded outwards to whole hours.
+     * A bitmap missing or not covering the window is left for {@link #rebuild()} and the window is answered
+     * from the approved bookings overlapping it, without waiting for the item lock.
+     */
+    @Transactional(readOnly = true)
+    public List<AvailabilityInterval> find(long itemId, long ownerId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime origin = LocalDate.now().atStartOfDay();
+        LocalDateTime horizonEnd = origin.plusDays(horizonDays);
+        if (!from.isBefore(to)) {
+            throw new BadStateException("Availability window start {0} is not before its end {1}", from, to);
+        }
+        if (from.isBefore(origin) || to.isAfter(horizonEnd)) {
+            throw new BadStateException("Availability is known from {0} to {1}", origin, horizonEnd);
+        }
+        ItemAvailability stored = availabilityRepository.findById(itemId).orElse(null);
+        if (stored != null && stored.covers(from, to)) {
+            return stored.intervals(from, to);
+        }
+        missed.put(itemId, ownerId);
+        ItemAvailability window = new ItemAvailability(itemId, origin, horizonEnd);
+        fill(window, from, to);
+        return window.intervals(from, to);
+    }
+
+    /**
+     * Builds or moves on the bitmaps reads have missed since the last run, taking the item locks in id order
+     * as approvals do, so that the hours of an approval are not overwritten.
+     */
+    @Transactional
+    @Scheduled(fixedDelayString = "${shareit.item.availability.rebuild-delay:PT1S}")
+    public void rebuild() {
+        LocalDateTime origin = LocalDate.now().atStartOfDay();
+        LocalDateTime horizonEnd = origin.plusDays(horizonDays);
+        List<Long> itemIds = missed.keySet().stream().sorted().collect(toList());
+        for (Long itemId : itemIds) {
+            Long ownerId = missed.remove(itemId);
+            if (ownerId != null) {
+                itemBookingSummaryService.lock(itemId, ownerId);
+                availabilityRepository.save(current(itemId, origin, horizonEnd));
+            }
+        }
+    }
+
+    /**
+     * Marks the hours of a booking being approved. The caller holds the item lock, so the bitmap
+     * can not be built or moved on concurrently.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void book(long itemId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime origin = LocalDate.now().atStartOfDay();
+        ItemAvailability availability = current(itemId, origin, origin.plusDays(horizonDays));
+        availability.markBusy(start, end);
+        availabilityRepository.save(availability);
+    }
+
+    /**
+     * The bitmap of the item for the horizon, built or moved on as needed and left for the caller to save.
+     */
+    private ItemAvailability current(long itemId, LocalDateTime origin, LocalDateTime horizonEnd) {
+        ItemAvailability availability = availabilityRepository.findById(itemId).orElse(null);
+        if (availability == null || origin.isBefore(availability.getOrigin())
+                || !origin.isBefore(availability.getHorizonEnd())) {
+            availability = new ItemAvailability(itemId, origin, horizonEnd);
+            fill(availability, origin, horizonEnd);
+            return availability;
+        }
+        if (!availability.getOrigin().equals(origin) || !availability.getHorizonEnd().equals(horizonEnd)) {
+            LocalDateTime filledUntil = availability.getHorizonEnd();
+            availability.rebase(origin, horizonEnd);
+            if (filledUntil.isBefore(horizonEnd)) {
+                fill(availability, filledUntil, horizonEnd);
+            }
+        }
+        return availability;
+    }
+
+    private void fill(ItemAvailability availability, LocalDateTime from, LocalDateTime to) {
+        List<ShortBookingView> bookings = bookingRepository.findViewsByItemIdAndStatusBetween(
+                availability.getItemId(), BookingStatus.APPROVED, from, to);
+        for (ShortBookingView booking : bookings) {
+            availability.markBusy(booking.getStart(), booking.getEnd());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingBoundary;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.model.ShortBookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.partitioningBy;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Keeps the last and next approved booking of every item in {@code item_booking_summary},
+ * so that owner item reads do not rank the booking history of their items.
+ */
+@Slf4j
+@Service
+public class ItemBookingSummaryService {
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final BookingRepository bookingRepository;
+    private final int rollChunkSize;
+    private final Counter rolled;
+    private final Counter staleReads;
+
+    public ItemBookingSummaryService(ItemBookingSummaryRepository summaryRepository,
+                                     BookingRepository bookingRepository,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${shareit.booking-summary.roll-chunk-size:1000}") int rollChunkSize) {
+        this.summaryRepository = summaryRepository;
+        this.bookingRepository = bookingRepository;
+        this.rollChunkSize = rollChunkSize;
+        this.rolled = Counter.builder("shareit.booking.summary.rolled")
+                .description("Item booking summaries refreshed after the start of their next booking passed")
+                .register(meterRegistry);
+        this.staleReads = Counter.builder("shareit.booking.summary.stale.reads")
+                .description("Owner item reads answered from the bookings because a summary was stale")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recomputes all summaries, for a database filled without going through the server. Run explicitly
+     * by whatever filled it, as the booking import does; the server creates the summaries of its own items.
+     */
+    @Transactional
+    public void rebuild() {
+        summaryRepository.deleteAllInBatch();
+        int booked = summaryRepository.insertForBookedItems(LocalDateTime.now());
+        int unbooked = summaryRepository.insertForUnbookedItems();
+        log.info("Item booking summaries built: {} booked items, {} items without bookings", booked, unbooked);
+    }
+
+    @Transactional
+    public void create(long itemId, long ownerId) {
+        summaryRepository.save(new ItemBookingSummary(itemId, ownerId));
+    }
+
+    /**
+     * Takes the row lock of the item summary till the end of the calling transaction. Approvals of an item
+     * take it before they look for overlapping bookings, so they are serialized with each other and with refreshes.
+     * A missing summary is created holding the lock of the item row, so that the first approvals of an item
+     * insert it once: the one that waited finds it on the second look.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lock(long itemId, long ownerId) {
+        if (summaryRepository.findForUpdate(itemId).isPresent()) {
+            return;
+        }
+        summaryRepository.lockItem(itemId);
+        if (summaryRepository.findForUpdate(itemId).isEmpty()) {
+            summaryRepository.saveAndFlush(new ItemBookingSummary(itemId, ownerId));
+        }
+    }
+
+    /**
+     * Recomputes the summary of the item after one of its bookings was approved.
+     */
+    @Transactional
+    public void refresh(long itemId, long ownerId) {
+        ItemBookingSummary summary = summaryRepository.findForUpdate(itemId)
+                .orElseGet(() -> new ItemBookingSummary(itemId, ownerId));
+        summary.update(bookingRepository.findApprovedBoundaries(ownerId, itemId, itemId, LocalDateTime.now()));
+        summaryRepository.save(summary);
+    }
+
+    /**
+     * Moves the next booking of the summaries whose next booking has started into the last one.
+     */
+    @Transactional
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.roll-delay:PT1M}")
+    public void roll() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ItemBookingSummary> stale = summaryRepository.findStaleForUpdate(now, PageRequest.of(0, rollChunkSize));
+        for (ItemBookingSummary summary : stale) {
+            long itemId = summary.getItemId();
+            summary.update(bookingRepository.findApprovedBoundaries(summary.getOwnerId(), itemId, itemId, now));
+        }
+        rolled.increment(stale.size());
+    }
+
+    /**
+     * Last (key true) and next (key false) approved booking of the owner items with ids in the range,
+     * keyed by item id. A range with a stale summary, which the roller has not reached yet, is answered
+     * by the windowed query over the bookings instead.
+     */
+    @Transactional(readOnly = true)
+    public Map<Boolean, Map<Long, ShortBookingView>> find(long ownerId, long fromItemId, long toItemId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ItemBookingSummary> summaries = summaryRepository.findByOwnerIdAndItemIdBetween(ownerId, fromItemId,
+                toItemId);
+        if (summaries.stream().anyMatch(summary -> summary.isStale(now))) {
+            staleReads.increment();
+            return bookingRepository.findApprovedBoundaries(ownerId, fromItemId, toItemId, now).stream()
+                    .collect(partitioningBy(BookingBoundary::isLast,
+                            toMap(BookingBoundary::getItemId, BookingBoundary::toView)));
+        }
+        Map<Long, ShortBookingView> lastBookings = new HashMap<>();
+        Map<Long, ShortBookingView> nextBookings = new HashMap<>();
+        for (ItemBookingSummary summary : summaries) {
+            if (summary.getLastBookingId() != null) {
+                lastBookings.put(summary.getItemId(), summary.getLastBooking());
+            }
+            if (summary.getNextBookingId() != null) {
+                nextBookings.put(summary.getItemId(), summary.getNextBooking());
+            }
+        }
+        return Map.of(true, lastBookings, false, nextBookings);
+    }
+}
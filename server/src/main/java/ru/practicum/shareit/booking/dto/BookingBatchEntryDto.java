@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Result of one entry of a batch: the booking with status 200, or the status and error it would have got alone.
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookingBatchEntryDto {
+    private int index;
+    private int status;
+    private BookingDto booking;
+    private String error;
+}
@@ -4,12 +4,14 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingView;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
 @Mapper(componentModel = "spring", uses = {ItemMapper.class, UserMapper.class})
 public interface BookingMapper {
+    @Mapping(target = "owner", ignore = true)
     Booking fromDto(BookingDto bookingDto);
 
     @Mapping(target = "itemId", ignore = true)
@@ -18,4 +20,15 @@ public interface BookingMapper {
     @Mapping(target = "itemId", ignore = true)
     @Mapping(target = "id", source = "booking.id")
     BookingDto toDtoWithUser(Booking booking, User booker);
+
+    @Mapping(target = "itemId", ignore = true)
+    @Mapping(target = "booker.id", source = "bookerId")
+    @Mapping(target = "booker.name", source = "bookerName")
+    @Mapping(target = "booker.email", source = "bookerEmail")
+    @Mapping(target = "item.id", source = "itemId")
+    @Mapping(target = "item.name", source = "itemName")
+    @Mapping(target = "item.description", source = "itemDescription")
+    @Mapping(target = "item.available", source = "itemAvailable")
+    @Mapping(target = "item.requestId", source = "itemRequestId")
+    BookingDto toDto(BookingView booking);
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Run of free or busy time of an item.
+ */
+@Value
+public class AvailabilityInterval {
+    LocalDateTime start;
+    LocalDateTime end;
+    boolean free;
+}
@@ -19,6 +19,7 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import java.time.LocalDateTime;
 
@@ -32,7 +33,8 @@ import java.time.LocalDateTime;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -43,13 +45,17 @@ public class Booking {
     @JoinColumn(name = "booker_id")
     private User booker;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id")
+    private User owner;
+
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
-    @Column(name = "start_date")
+    @Column(nullable = false, name = "start_date")
     private LocalDateTime start;
 
-    @Column(name = "end_date")
+    @Column(nullable = false, name = "end_date")
     private LocalDateTime end;
 
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * The last or the next approved booking of an item, a row of the windowed boundary query.
+ */
+public interface BookingBoundary {
+    long getId();
+
+    long getItemId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    long getBookerId();
+
+    /**
+     * True for the last booking, which started at or before the reference time, false for the next one.
+     */
+    boolean isLast();
+
+    default ShortBookingView toView() {
+        return new ShortBookingView(getId(), getItemId(), getStart(), getEnd(), getBookerId());
+    }
+}
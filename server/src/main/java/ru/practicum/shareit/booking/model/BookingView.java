@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only row of a booking list with its booker and item, selected by a constructor expression.
+ */
+@Value
+public class BookingView {
+    long id;
+    LocalDateTime start;
+    LocalDateTime end;
+    BookingStatus status;
+    long bookerId;
+    String bookerName;
+    String bookerEmail;
+    long itemId;
+    String itemName;
+    String itemDescription;
+    Boolean itemAvailable;
+    Long itemRequestId;
+}
@@ -0,0 +1,135 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Hours of an item taken by approved bookings from origin to the horizon end, one bit per hour.
+ * A booking takes every hour it touches, so busy intervals are rounded outwards to whole hours.
+ * The item id is assigned rather than generated, so a new bitmap reports itself as new
+ * to be inserted without the select a merge would run first.
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "item_availability")
+public class ItemAvailability implements Persistable<Long> {
+    public static final Duration SLOT = Duration.ofHours(1);
+
+    @Id
+    private Long itemId;
+
+    private LocalDateTime origin;
+    private LocalDateTime horizonEnd;
+    private byte[] busySlots;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private boolean persisted;
+
+    public ItemAvailability(long itemId, LocalDateTime origin, LocalDateTime horizonEnd) {
+        this.itemId = itemId;
+        this.origin = origin;
+        this.horizonEnd = horizonEnd;
+        this.busySlots = new byte[0];
+    }
+
+    @Override
+    public Long getId() {
+        return itemId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    public boolean covers(LocalDateTime from, LocalDateTime to) {
+        return !from.isBefore(origin) && !to.isAfter(horizonEnd);
+    }
+
+    /**
+     * Takes the hours of the interval that fall within the horizon.
+     */
+    public void markBusy(LocalDateTime start, LocalDateTime end) {
+        int from = Math.max(0, slotFloor(start));
+        int to = Math.min(slotCount(), slotCeiling(end));
+        if (from < to) {
+            BitSet busy = BitSet.valueOf(busySlots);
+            busy.set(from, to);
+            busySlots = busy.toByteArray();
+        }
+    }
+
+    /**
+     * Moves the horizon to start at the new origin, keeping the hours both horizons share. The hours
+     * past the old horizon end are left free for the caller to fill.
+     */
+    public void rebase(LocalDateTime newOrigin, LocalDateTime newHorizonEnd) {
+        BitSet busy = BitSet.valueOf(busySlots);
+        int shift = slotFloor(newOrigin);
+        BitSet moved = shift < 0 ? new BitSet() : busy.get(shift, Math.max(shift, slotCount()));
+        origin = newOrigin;
+        horizonEnd = newHorizonEnd;
+        moved.clear(slotCount(), Math.max(slotCount(), moved.length()));
+        busySlots = moved.toByteArray();
+    }
+
+    /**
+     * Free and busy intervals covering the window, one per run of equal hours, in order.
+     * The window has to be within the horizon.
+     */
+    public List<AvailabilityInterval> intervals(LocalDateTime from, LocalDateTime to) {
+        BitSet busy = BitSet.valueOf(busySlots);
+        List<AvailabilityInterval> intervals = new ArrayList<>();
+        LocalDateTime start = from;
+        int slot = slotFloor(from);
+        int last = slotCeiling(to);
+        while (slot < last) {
+            boolean free = !busy.get(slot);
+            int next = free ? busy.nextSetBit(slot) : busy.nextClearBit(slot);
+            next = next < 0 || next > last ? last : next;
+            LocalDateTime end = next == last ? to : slotStart(next);
+            intervals.add(new AvailabilityInterval(start, end, free));
+            start = end;
+            slot = next;
+        }
+        return intervals;
+    }
+
+    private int slotCount() {
+        return slotFloor(horizonEnd);
+    }
+
+    private int slotFloor(LocalDateTime time) {
+        return Math.toIntExact(Math.floorDiv(Duration.between(origin, time).toMillis(), SLOT.toMillis()));
+    }
+
+    private int slotCeiling(LocalDateTime time) {
+        return Math.toIntExact(-Math.floorDiv(-Duration.between(origin, time).toMillis(), SLOT.toMillis()));
+    }
+
+    private LocalDateTime slotStart(int slot) {
+        return origin.plus(SLOT.multipliedBy(slot));
+    }
+}
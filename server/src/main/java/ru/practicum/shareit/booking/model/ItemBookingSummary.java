@@ -0,0 +1,81 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Last and next approved booking of an item as of the last refresh. The row turns stale
+ * once the start of the next booking has passed, until it is refreshed again.
+ */
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "item_booking_summary")
+public class ItemBookingSummary {
+    @Id
+    private Long itemId;
+
+    private Long ownerId;
+
+    private Long lastBookingId;
+    private LocalDateTime lastStart;
+    private LocalDateTime lastEnd;
+    private Long lastBookerId;
+
+    private Long nextBookingId;
+    private LocalDateTime nextStart;
+    private LocalDateTime nextEnd;
+    private Long nextBookerId;
+
+    public ItemBookingSummary(long itemId, long ownerId) {
+        this.itemId = itemId;
+        this.ownerId = ownerId;
+    }
+
+    public boolean isStale(LocalDateTime now) {
+        return nextStart != null && !nextStart.isAfter(now);
+    }
+
+    public ShortBookingView getLastBooking() {
+        return lastBookingId == null ? null
+                : new ShortBookingView(lastBookingId, itemId, lastStart, lastEnd, lastBookerId);
+    }
+
+    public ShortBookingView getNextBooking() {
+        return nextBookingId == null ? null
+                : new ShortBookingView(nextBookingId, itemId, nextStart, nextEnd, nextBookerId);
+    }
+
+    /**
+     * Replaces both bookings with the rows of the boundary query for this item.
+     */
+    public void update(List<BookingBoundary> boundaries) {
+        lastBookingId = null;
+        lastStart = null;
+        lastEnd = null;
+        lastBookerId = null;
+        nextBookingId = null;
+        nextStart = null;
+        nextEnd = null;
+        nextBookerId = null;
+        for (BookingBoundary boundary : boundaries) {
+            if (boundary.isLast()) {
+                lastBookingId = boundary.getId();
+                lastStart = boundary.getStart();
+                lastEnd = boundary.getEnd();
+                lastBookerId = boundary.getBookerId();
+            } else {
+                nextBookingId = boundary.getId();
+                nextStart = boundary.getStart();
+                nextEnd = boundary.getEnd();
+                nextBookerId = boundary.getBookerId();
+            }
+        }
+    }
+}
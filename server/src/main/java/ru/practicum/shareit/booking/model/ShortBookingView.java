@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only last or next booking of an item.
+ */
+@Value
+public class ShortBookingView {
+    long id;
+    long itemId;
+    LocalDateTime start;
+    LocalDateTime end;
+    long bookerId;
+}
@@ -1,91 +1,140 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingBoundary;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ShortBookingView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Query(value = "SELECT booking FROM Booking booking JOIN FETCH booking.item " +
-            "WHERE booking.booker = ?1 ORDER BY booking.start DESC",
-            countQuery = "SELECT count(booking) FROM Booking booking JOIN booking.item " +
-                    "WHERE booking.booker = ?1")
-    Page<Booking> findByBookerOrderByStartDesc(User user, Pageable pageable);
-
-    @Query(value = "SELECT booking FROM Booking booking JOIN FETCH booking.item " +
-            "WHERE booking.booker = ?1 AND booking.start > ?2 ORDER BY booking.start DESC",
-            countQuery = "SELECT count(booking) FROM Booking booking JOIN booking.item " +
-                    "WHERE booking.booker = ?1 AND booking.start > ?2")
-    Page<Booking> findByBookerAndStartDateAfterOrderByStartDesc(User booker, LocalDateTime now, Pageable pageable);
-
-    @Query(value = "SELECT booking FROM Booking booking JOIN FETCH booking.item " +
-            "WHERE booking.booker = ?1 AND booking.end <= ?2 ORDER BY booking.start DESC",
-            countQuery = "SELECT count(booking) FROM Booking booking JOIN booking.item " +
-                    "WHERE booking.booker = ?1 AND booking.end <= ?2")
-    Page<Booking> findByBookerAndEndDateBeforeOrderByStartDesc(User booker, LocalDateTime now, Pageable pageable);
-
-    @Query(value = "SELECT booking FROM Booking booking JOIN FETCH booking.item " +
-            "WHERE booking.booker = ?1 AND booking.start <= ?2 AND booking.end >= ?2",
-            countQuery = "SELECT count(booking) FROM Booking booking JOIN booking.item " +
-                    "WHERE booking.booker = ?1 AND booking.start <= ?2 AND booking.end >= ?2")
-    Page<Booking> findByBookerAndStartBeforeAndEndAfter(User booker, LocalDateTime now, Pageable pageable);
-
-    @Query(value = "SELECT booking FROM Booking booking JOIN FETCH booking.item " +
-            "WHERE booking.booker = ?1 AND booking.status like ?2 ORDER BY booking.start DESC",
-            countQuery = "SELECT count(booking) FROM Booking booking JOIN booking.item " +
-                    "WHERE booking.booker = ?1 AND booking.status like ?2")
-    Page<Booking> findByBookerAndStatus(User booker, BookingStatus status, Pageable pageable);
-
-    @Query(value = "SELECT booking FROM Booking booking JOIN FETCH booking.item item JOIN FETCH booking.booker " +
-            "WHERE item.owner = ?1 ORDER BY booking.start DESC",
-            countQuery = "SELECT count(booking) FROM Booking booking JOIN booking.item item JOIN booking.booker " +
-                    "WHERE item.owner = ?1")
-    Page<Booking> findByOwnerOrderByStartDesc(User owner, Pageable pageable);
-
-    @Query(value = "SELECT booking FROM Booking booking JOIN FETCH booking.item item JOIN FETCH booking.booker " +
-            "WHERE item.owner = ?1 AND booking.start > ?2 ORDER BY booking.start DESC",
-            countQuery = "SELECT count(booking) FROM Booking booking JOIN booking.item item JOIN booking.booker " +
-                    "WHERE item.owner = ?1 AND booking.start > ?2")
-    Page<Booking> findByOwnerAndStartDateAfterOrderByStartDesc(User booker, LocalDateTime now, Pageable pageable);
-
-    @Query(value = "SELECT booking FROM Booking booking JOIN FETCH booking.item item JOIN FETCH booking.booker " +
-            "WHERE item.owner = ?1 AND booking.end <= ?2 ORDER BY booking.start DESC",
-            countQuery = "SELECT count(booking) FROM Booking booking JOIN booking.item item JOIN booking.booker " +
-                    "WHERE item.owner = ?1 AND booking.end <= ?2")
-    Page<Booking> findByOwnerAndEndDateBeforeOrderByStartDesc(User booker, LocalDateTime now, Pageable pageable);
-
-    @Query(value = "SELECT booking FROM Booking booking JOIN FETCH booking.item item JOIN FETCH booking.booker " +
-            "WHERE item.owner = ?1 AND booking.start <= ?2 AND booking.end >= ?2 ",
-            countQuery = "SELECT count(booking) FROM Booking booking JOIN booking.item item JOIN booking.booker " +
-                    "WHERE item.owner = ?1 AND booking.start <= ?2 AND booking.end >= ?2")
-    Page<Booking> findByOwnerAndStartBeforeAndEndAfterOrder(User booker, LocalDateTime now, Pageable pageable);
-
-    @Query(value = "SELECT booking FROM Booking booking JOIN FETCH booking.item item JOIN FETCH booking.booker " +
-            "WHERE item.owner = ?1 AND booking.status like ?2 ORDER BY booking.start DESC",
-            countQuery = "SELECT count(booking) FROM Booking booking JOIN booking.item item JOIN booking.booker " +
-                    "WHERE item.owner = ?1 AND booking.status like ?2")
-    Page<Booking> findByOwnerAndStatus(User booker, BookingStatus status, Pageable pageable);
-
-    Optional<Booking> findFirstByItemAndStartAfterAndStatusOrderByStart(Item item, LocalDateTime now,
-                                                                        BookingStatus status);
-
-    Optional<Booking> findFirstByItemAndStartLessThanEqualAndStatusOrderByStartDesc(Item item, LocalDateTime now,
-                                                                                    BookingStatus status);
+    String BOOKING_VIEW = "SELECT new ru.practicum.shareit.booking.model.BookingView(booking.id, booking.start, " +
+            "booking.end, booking.status, booker.id, booker.name, booker.email, item.id, item.name, " +
+            "item.description, item.available, item.requestId) " +
+            "FROM Booking booking JOIN booking.booker booker JOIN booking.item item ";
+    /**
+     * Every state is a range over start and end plus a set of statuses, open sides are bound to sentinels.
+     * The keyset condition is always true for the first page, so offset and cursor paging share the query.
+     */
+    String BOOKING_VIEW_FILTER = "AND booking.start > ?2 AND booking.start <= ?3 " +
+            "AND booking.end >= ?4 AND booking.end <= ?5 AND booking.status IN ?6 " +
+            "AND (booking.start < ?7 OR (booking.start = ?7 AND booking.id < ?8)) " +
+            "ORDER BY booking.start DESC, booking.id DESC";
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * Item and booker are mapped into every booking response, so they come in the same select.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Set-based status change of a batch. Pending changes are flushed before, and the context is cleared
+     * after, so that loaded bookings of the batch are not written once more row by row.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking booking SET booking.status = ?2 WHERE booking.id IN ?1 AND booking.status = ?3")
+    int updateStatusByIdIn(Collection<Long> ids, BookingStatus status, BookingStatus current);
+
+    long countByBooker(User booker);
+
+    long countByBookerAndStartAfter(User booker, LocalDateTime now);
+
+    long countByBookerAndEndLessThanEqual(User booker, LocalDateTime now);
+
+    long countByBookerAndStartLessThanEqualAndEndGreaterThanEqual(User booker, LocalDateTime start, LocalDateTime end);
+
+    long countByBookerAndStatus(User booker, BookingStatus status);
+
+    long countByOwner(User owner);
+
+    long countByOwnerAndStartAfter(User owner, LocalDateTime now);
+
+    long countByOwnerAndEndLessThanEqual(User owner, LocalDateTime now);
+
+    long countByOwnerAndStartLessThanEqualAndEndGreaterThanEqual(User owner, LocalDateTime start, LocalDateTime end);
+
+    long countByOwnerAndStatus(User owner, BookingStatus status);
 
     Optional<Booking> findFirstByItemAndBookerAndStartBeforeAndStatusOrderByStartDesc(Item i, User u,
                                                                                       LocalDateTime n, BookingStatus s);
 
-    List<Booking> findFirstByItemInAndStartAfterAndStatusOrderByStart(List<Item> item, LocalDateTime now,
-                                                                      BookingStatus status);
-
-    List<Booking> findFirstByItemInAndStartLessThanEqualAndStatusOrderByStartDesc(List<Item> item, LocalDateTime now,
-                                                                                  BookingStatus status);
+    /**
+     * The latest booking of the item in the status that starts before the given end. Approved bookings of
+     * an item never overlap, so they end in the order they start and this is the only one that can overlap
+     * an interval ending there: one backward step on the (item, status, start) index instead of a range scan.
+     */
+    Optional<Booking> findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(long itemId, BookingStatus status,
+                                                                               LocalDateTime end);
+
+    @Query("SELECT new ru.practicum.shareit.booking.model.ShortBookingView(booking.id, booking.item.id, " +
+            "booking.start, booking.end, booking.booker.id) FROM Booking booking " +
+            "WHERE booking.item.id = ?1 AND booking.status = ?2 AND booking.start < ?4 AND booking.end > ?3")
+    List<ShortBookingView> findViewsByItemIdAndStatusBetween(long itemId, BookingStatus status, LocalDateTime from,
+                                                             LocalDateTime to);
+
+    @Query("SELECT new ru.practicum.shareit.booking.model.ShortBookingView(booking.id, booking.item.id, " +
+            "booking.start, booking.end, booking.booker.id) FROM Booking booking " +
+            "WHERE booking.item.id IN ?1 AND booking.status = ?2 AND booking.start < ?4 AND booking.end > ?3")
+    List<ShortBookingView> findViewsByItemIdInAndStatusBetween(Collection<Long> itemIds, BookingStatus status,
+                                                               LocalDateTime from, LocalDateTime to);
+
+    @Query(BOOKING_VIEW + "WHERE booking.booker.id = ?1 " + BOOKING_VIEW_FILTER)
+    Slice<BookingView> findViewsByBooker(long bookerId, LocalDateTime startAfter, LocalDateTime startUntil,
+                                         LocalDateTime endFrom, LocalDateTime endUntil,
+                                         Collection<BookingStatus> statuses, LocalDateTime beforeStart,
+                                         long beforeId, Pageable pageable);
+
+    @Query(BOOKING_VIEW + "WHERE booking.owner.id = ?1 " + BOOKING_VIEW_FILTER)
+    Slice<BookingView> findViewsByOwner(long ownerId, LocalDateTime startAfter, LocalDateTime startUntil,
+                                        LocalDateTime endFrom, LocalDateTime endUntil,
+                                        Collection<BookingStatus> statuses, LocalDateTime beforeStart,
+                                        long beforeId, Pageable pageable);
+
+    /**
+     * The owner listing read through a JDBC cursor for a streamed response, rows are fetched from the
+     * database in batches of the fetch size while the stream is consumed. Has to be consumed and closed
+     * inside a transaction, Postgres only honours the fetch size with auto-commit off.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(BOOKING_VIEW + "WHERE booking.owner.id = ?1 " + BOOKING_VIEW_FILTER)
+    Stream<BookingView> streamViewsByOwner(long ownerId, LocalDateTime startAfter, LocalDateTime startUntil,
+                                           LocalDateTime endFrom, LocalDateTime endUntil,
+                                           Collection<BookingStatus> statuses, LocalDateTime beforeStart,
+                                           long beforeId, Pageable pageable);
+
+    /**
+     * Last and next approved booking of every item of the owner with an id in the range, in one pass:
+     * the approved bookings of an item are split at the reference time and ranked towards it, the first
+     * of each side is returned. A page of owner items ordered by id is exactly such a range, and two bounds
+     * keep the statement the same whatever the page size, unlike an IN list of ids.
+     */
+    @Query(value = "SELECT id, item_id AS \"itemId\", start_date AS \"start\", end_date AS \"end\", " +
+            "booker_id AS \"bookerId\", is_last AS \"last\" FROM (" +
+            "SELECT id, item_id, start_date, end_date, booker_id, start_date <= ?4 AS is_last, " +
+            "ROW_NUMBER() OVER (PARTITION BY item_id, start_date <= ?4 " +
+            "ORDER BY CASE WHEN start_date <= ?4 THEN start_date END DESC, " +
+            "CASE WHEN start_date > ?4 THEN start_date END, id DESC) AS position " +
+            "FROM bookings WHERE owner_id = ?1 AND item_id BETWEEN ?2 AND ?3 AND status = 'APPROVED') AS ranked " +
+            "WHERE position = 1", nativeQuery = true)
+    List<BookingBoundary> findApprovedBoundaries(long ownerId, long fromItemId, long toItemId, LocalDateTime now);
 }
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.booking.model.ItemAvailability;
+
+public interface ItemAvailabilityRepository extends JpaRepository<ItemAvailability, Long> {
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+
+    List<ItemBookingSummary> findByOwnerIdAndItemIdBetween(long ownerId, long fromItemId, long toItemId);
+
+    /**
+     * Serializes refreshes of one item, so that two approvals can not overwrite each other's result.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT summary FROM ItemBookingSummary summary WHERE summary.itemId = ?1")
+    Optional<ItemBookingSummary> findForUpdate(long itemId);
+
+    /**
+     * Takes the row lock of the item, under which a missing summary of it is created.
+     */
+    @Query(value = "SELECT id FROM items WHERE id = ?1 FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockItem(long itemId);
+
+    /**
+     * Locks in item id order, the order in which batch approvals lock the summaries, so that the roller
+     * waits for an approval instead of deadlocking with it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT summary FROM ItemBookingSummary summary WHERE summary.nextStart <= ?1 " +
+            "ORDER BY summary.itemId")
+    List<ItemBookingSummary> findStaleForUpdate(LocalDateTime now, Pageable pageable);
+
+    /**
+     * A row for every item with an approved booking, from the same ranking as
+     * {@link BookingRepository#findApprovedBoundaries}. Count queries are given only because
+     * Spring Data can not derive one from an INSERT.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO item_booking_summary (item_id, owner_id, " +
+            "last_booking_id, last_start, last_end, last_booker_id, " +
+            "next_booking_id, next_start, next_end, next_booker_id) " +
+            "SELECT item_id, MAX(owner_id), " +
+            "MAX(CASE WHEN is_last THEN id END), " +
+            "MAX(CASE WHEN is_last THEN start_date END), " +
+            "MAX(CASE WHEN is_last THEN end_date END), " +
+            "MAX(CASE WHEN is_last THEN booker_id END), " +
+            "MAX(CASE WHEN NOT is_last THEN id END), " +
+            "MAX(CASE WHEN NOT is_last THEN start_date END), " +
+            "MAX(CASE WHEN NOT is_last THEN end_date END), " +
+            "MAX(CASE WHEN NOT is_last THEN booker_id END) " +
+            "FROM (" +
+            "SELECT id, item_id, owner_id, start_date, end_date, booker_id, start_date <= ?1 AS is_last, " +
+            "ROW_NUMBER() OVER (PARTITION BY item_id, start_date <= ?1 " +
+            "ORDER BY CASE WHEN start_date <= ?1 THEN start_date END DESC, " +
+            "CASE WHEN start_date > ?1 THEN start_date END, id DESC) AS position " +
+            "FROM bookings WHERE status = 'APPROVED') AS ranked " +
+            "WHERE position = 1 GROUP BY item_id",
+            countQuery = "SELECT COUNT(*) FROM item_booking_summary", nativeQuery = true)
+    int insertForBookedItems(LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO item_booking_summary (item_id, owner_id) " +
+            "SELECT id, owner_id FROM items WHERE NOT EXISTS " +
+            "(SELECT 1 FROM item_booking_summary summary WHERE summary.item_id = items.id)",
+            countQuery = "SELECT COUNT(*) FROM item_booking_summary", nativeQuery = true)
+    int insertForUnbookedItems();
+}
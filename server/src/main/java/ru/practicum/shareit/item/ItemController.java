@@ -1,8 +1,14 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -13,15 +19,26 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.Cursor;
+import ru.practicum.shareit.NdjsonResponse;
 import ru.practicum.shareit.Util;
 import ru.practicum.shareit.Variables;
+import ru.practicum.shareit.exception.BadStateException;
+import ru.practicum.shareit.item.dto.AvailabilityDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.OwnerItemDto;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentView;
 import ru.practicum.shareit.item.model.ExtendItem;
+import ru.practicum.shareit.item.model.FreeWindow;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.OwnerItemView;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -36,6 +53,7 @@ public class ItemController {
 
     private final ItemMapper itemMapper;
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     // Добавление новой вещи
     @PostMapping
@@ -68,29 +86,107 @@ public class ItemController {
 
     // Просмотр владельцем списка всех его вещей с указанием названия и описанием для каждой
     @GetMapping
-    public List<OwnerItemDto> getAll(@RequestHeader(Variables.USER_ID) Long userId,
-                                     @RequestParam(defaultValue = "0") int from,
-                                     @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = Util.getPageable(from, size);
-        log.info("Request on get all for user id: {}", userId);
-        List<ExtendItem> allByUserId = itemService.getAllByUserId(userId, pageable);
-        return allByUserId.stream()
-                .map(itemMapper::toDtoOwner)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<OwnerItemDto>> getAll(@RequestHeader(Variables.USER_ID) Long userId,
+                                                     @RequestParam(defaultValue = "0") int from,
+                                                     @RequestParam(defaultValue = "20") int size,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "false") boolean total) {
+        log.info("Request on get all for user id: {}, cursor: {}", userId, cursor);
+        ResponseEntity<List<OwnerItemDto>> response;
+        if (cursor != null) {
+            Slice<OwnerItemView> items = itemService.getOwnerItemViews(userId, Cursor.decode(cursor),
+                    PageRequest.of(0, size));
+            response = Util.toCursorResponse(items, toOwnerDtos(items.getContent()), item -> Cursor.of(item.getId()));
+        } else {
+            Pageable pageable = Util.getPageable(from, size);
+            response = ResponseEntity.ok(toOwnerDtos(itemService.getOwnerItemViews(userId, null, pageable)
+                    .getContent()));
+        }
+        return Util.withTotalCount(response, total, () -> itemService.countByUserId(userId));
     }
 
-    // Поиск вещи потенциальным арендатором
+    // Потоковая выдача вещей владельца в NDJSON для больших размеров страницы:
+    // вещи читаются порциями и пишутся в ответ сразу, без списка в памяти
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAll(@RequestHeader(Variables.USER_ID) Long userId,
+                          @RequestParam(defaultValue = "20") int size,
+                          @RequestParam(required = false) String cursor,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.info("Request on stream all for user id: {}, cursor: {}", userId, cursor);
+        NdjsonResponse body = new NdjsonResponse(objectMapper, request, response);
+        itemService.streamOwnerItemViews(userId, Cursor.decode(cursor), size,
+                item -> body.write(itemMapper.toDtoOwner(item)));
+        body.finish();
+    }
+
+    // Поиск вещи потенциальным арендатором,
+    // ranked=true упорядочивает по релевантности: начало названия, название, описание,
+    // постраничный вывод по курсору поддерживается только для порядка по id,
+    // start и end оставляют только вещи без одобренных (waiting=true - и ожидающих) бронирований в этом окне
     @GetMapping("/search")
-    public List<ItemDto> searchItems(@RequestParam("text") String text,
-                                     @RequestParam(defaultValue = "0") int from,
-                                     @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = Util.getPageable(from, size);
-        log.info("Request on search text: {}", text);
+    public ResponseEntity<List<ItemDto>> searchItems(@RequestParam("text") String text,
+                                                     @RequestParam(defaultValue = "false") boolean ranked,
+                                                     @RequestParam(defaultValue = "0") int from,
+                                                     @RequestParam(defaultValue = "20") int size,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "false") boolean total,
+                                                     @RequestParam(required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime start,
+                                                     @RequestParam(required = false)
+                                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime end,
+                                                     @RequestParam(defaultValue = "false") boolean waiting) {
+        log.info("Request on search text: {}, ranked: {}, cursor: {}, start: {}, end: {}", text, ranked, cursor,
+                start, end);
+        if (cursor != null && ranked) {
+            throw new BadStateException("Cursor paging is not supported for ranked search");
+        }
+        if ((start == null) != (end == null)) {
+            throw new BadStateException("Search window needs both start and end");
+        }
+        if (start != null && !start.isBefore(end)) {
+            throw new BadStateException("Search window start {0} is not before its end {1}", start, end);
+        }
+        FreeWindow free = start == null ? null : FreeWindow.of(start, end, waiting);
         if (text.isBlank()) {
-            return Collections.emptyList();
+            return Util.withTotalCount(ResponseEntity.ok(Collections.emptyList()), total, () -> 0);
         }
-        List<Item> items = itemService.searchItems(text.toLowerCase(Locale.ROOT), pageable);
-        return items.stream().map(itemMapper::toDto).collect(Collectors.toList());
+        String lowerText = text.toLowerCase(Locale.ROOT);
+        ResponseEntity<List<ItemDto>> response;
+        if (cursor != null) {
+            Slice<Item> items = itemService.searchItems(lowerText, free, Cursor.decode(cursor), size);
+            response = Util.toCursorResponse(items, toDtos(items.getContent()), item -> Cursor.of(item.getId()));
+        } else {
+            Pageable pageable = Util.getPageable(from, size);
+            response = ResponseEntity.ok(toDtos(itemService.searchItems(lowerText, ranked, free, pageable)));
+        }
+        return Util.withTotalCount(response, total, () -> itemService.countSearchItems(lowerText, free));
+    }
+
+    // Просмотр комментариев к вещи, новые первыми, постранично по курсору
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@PathVariable Long itemId,
+                                                        @RequestParam(defaultValue = "20") int size,
+                                                        @RequestParam(required = false) String cursor) {
+        log.info("Request on get comments, item id: {}, cursor: {}", itemId, cursor);
+        Slice<CommentView> comments = itemService.getComments(itemId, Cursor.decode(cursor), size);
+        return Util.toCursorResponse(comments, comments.map(itemMapper::toCommentDto).getContent(),
+                comment -> Cursor.of(comment.getCreated(), comment.getId()));
+    }
+
+    // Свободные и занятые одобренными бронированиями интервалы вещи в окне from..to,
+    // занятые округлены до целых часов, окно не дальше горизонта календаря
+    @GetMapping("/{itemId}/availability")
+    public List<AvailabilityDto> getAvailability(@PathVariable Long itemId,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                 LocalDateTime from,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                 LocalDateTime to) {
+        log.info("Request on get availability, item id: {}, from: {}, to: {}", itemId, from, to);
+        return itemService.getAvailability(itemId, from, to).stream()
+                .map(itemMapper::toAvailabilityDto)
+                .collect(Collectors.toList());
     }
 
     // Добавление комментария
@@ -102,4 +198,14 @@ public class ItemController {
         Comment comment = itemService.addComment(userId, itemId, commentDto.getText());
         return itemMapper.toCommentDto(comment);
     }
+
+    private List<OwnerItemDto> toOwnerDtos(List<OwnerItemView> items) {
+        return items.stream()
+                .map(itemMapper::toDtoOwner)
+                .collect(Collectors.toList());
+    }
+
+    private List<ItemDto> toDtos(List<Item> items) {
+        return items.stream().map(itemMapper::toDto).collect(Collectors.toList());
+    }
 }
@@ -2,15 +2,18 @@ package ru.practicum.shareit.item;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
-import ru.practicum.shareit.booking.mapper.ShortBookingMapper;
+import ru.practicum.shareit.booking.model.AvailabilityInterval;
+import ru.practicum.shareit.item.dto.AvailabilityDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.OwnerItemDto;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentView;
 import ru.practicum.shareit.item.model.ExtendItem;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.OwnerItemView;
 
-@Mapper(componentModel = "spring", uses = {ShortBookingMapper.class})
+@Mapper(componentModel = "spring")
 public interface ItemMapper {
 
     ItemDto toDto(Item item);
@@ -25,6 +28,12 @@ public interface ItemMapper {
     @Mapping(target = "id", source = "item.id")
     OwnerItemDto toDtoOwner(ExtendItem item);
 
+    OwnerItemDto toDtoOwner(OwnerItemView item);
+
     @Mapping(target = "authorName", source = "c.author.name")
     CommentDto toCommentDto(Comment c);
+
+    CommentDto toCommentDto(CommentView c);
+
+    AvailabilityDto toAvailabilityDto(AvailabilityInterval interval);
 }
\ No newline at end of file
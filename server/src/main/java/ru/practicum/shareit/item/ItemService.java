@@ -1,11 +1,19 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.Cursor;
+import ru.practicum.shareit.booking.model.AvailabilityInterval;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentView;
 import ru.practicum.shareit.item.model.ExtendItem;
+import ru.practicum.shareit.item.model.FreeWindow;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.OwnerItemView;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     Item add(Item item, long userId);
@@ -14,9 +22,36 @@ public interface ItemService {
 
     ExtendItem getById(long itemId, long userId);
 
-    List<ExtendItem> getAllByUserId(long userId, Pageable pageable);
+    /**
+     * Read-only listing of the owner, the first page when after is null.
+     */
+    Slice<OwnerItemView> getOwnerItemViews(long userId, Cursor after, Pageable pageable);
 
-    List<Item> searchItems(String text, Pageable pageable);
+    /**
+     * The owner listing of up to size items, passed to the action one by one as they are read.
+     */
+    void streamOwnerItemViews(long userId, Cursor after, int size, Consumer<OwnerItemView> action);
+
+    /**
+     * Available items matching the text, only those free in the window unless it is null.
+     */
+    List<Item> searchItems(String text, boolean ranked, FreeWindow free, Pageable pageable);
+
+    Slice<Item> searchItems(String text, FreeWindow free, Cursor after, int size);
+
+    long countByUserId(long userId);
+
+    long countSearchItems(String text, FreeWindow free);
+
+    /**
+     * Comments of the item, newest first, the first page when after is null.
+     */
+    Slice<CommentView> getComments(long itemId, Cursor after, int size);
+
+    /**
+     * Free and busy intervals of the item covering the window, busy ones rounded outwards to whole hours.
+     */
+    List<AvailabilityInterval> getAvailability(long itemId, LocalDateTime from, LocalDateTime to);
 
     Comment addComment(Long userId, Long itemId, String commentText);
 }
@@ -2,33 +2,51 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.CacheConfig;
+import ru.practicum.shareit.Cursor;
 import ru.practicum.shareit.Variables;
 import ru.practicum.shareit.booking.BookingStatus;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.ItemAvailabilityService;
+import ru.practicum.shareit.booking.ItemBookingSummaryService;
+import ru.practicum.shareit.booking.model.AvailabilityInterval;
+import ru.practicum.shareit.booking.model.ShortBookingView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.NotAvailableException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentView;
 import ru.practicum.shareit.item.model.ExtendItem;
+import ru.practicum.shareit.item.model.FreeWindow;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.item.model.LatestComment;
+import ru.practicum.shareit.item.model.OwnedItemView;
+import ru.practicum.shareit.item.model.OwnerItemView;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserView;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
-import static org.springframework.data.domain.Sort.Direction.DESC;
 
 @Slf4j
 @Service
@@ -39,18 +57,31 @@ public class ItemServiceImpl implements ItemService {
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemBookingSummaryService itemBookingSummaryService;
+    private final ItemAvailabilityService itemAvailabilityService;
+
+    @Value("${shareit.item.comments-per-item:10}")
+    private int commentsPerItem;
+    @Value("${shareit.item.stream-chunk-size:500}")
+    private int streamChunkSize;
 
     @Override
     public Item add(Item item, long userId) {
         User owner = getOwnerOrThrowNotFoundException(userId);
         item.setOwner(owner);
-        return itemRepository.save(item);
+        item = itemRepository.save(item);
+        itemSearchIndex.index(item);
+        itemBookingSummaryService.create(item.getId(), owner.getId());
+        return item;
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.ITEMS, key = "#itemId")
     public Item edit(Item updatedItem, long itemId, long userId) {
         boolean isUpdated = false;
-        Item item = getItemOrThrowNotFoundException(itemId);
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new NotFoundException("Item not found"));
         log.info("Update: {}", item);
         if (item.getOwner().getId() != userId) {
             throw new NotFoundException("User is not the owner of the item");
@@ -74,6 +105,7 @@ public class ItemServiceImpl implements ItemService {
         }
         if (isUpdated) {
             item = itemRepository.save(item);
+            itemSearchIndex.index(item);
         }
         return item;
     }
@@ -81,49 +113,129 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public ExtendItem getById(long itemId, long userId) {
         ExtendItem item = new ExtendItem(getItemOrThrowNotFoundException(itemId));
-        item.setComments(commentRepository.findByItemId(itemId));
+        item.setComments(findLatestComments(List.of(itemId)).getOrDefault(itemId, List.of()));
         if (item.getOwner().getId() == userId) {
-            LocalDateTime now = LocalDateTime.now();
-            item.setNextBooking(
-                    bookingRepository
-                            .findFirstByItemAndStartAfterAndStatusOrderByStart(item, now, BookingStatus.APPROVED)
-                            .orElse(null));
-            item.setLastBooking(
-                    bookingRepository
-                            .findFirstByItemAndStartLessThanEqualAndStatusOrderByStartDesc(item, now,
-                                    BookingStatus.APPROVED)
-                            .orElse(null));
+            Map<Boolean, Map<Long, ShortBookingView>> bookings = itemBookingSummaryService.find(userId, itemId,
+                    itemId);
+            item.setLastBooking(bookings.get(true).get(itemId));
+            item.setNextBooking(bookings.get(false).get(itemId));
         }
         return item;
     }
 
     @Override
-    public List<ExtendItem> getAllByUserId(long userId, Pageable pageable) {
-        User user = getOwnerOrThrowNotFoundException(userId);
-        List<Item> items = itemRepository.findAllByOwnerOrderByIdAsc(user, pageable).toList();
-        Map<Item, List<Comment>> comments = commentRepository.findByItemIn(items, Sort.by(DESC, "created"))
-                .stream()
-                .collect(groupingBy(Comment::getItem, toList()));
-        LocalDateTime now = LocalDateTime.now();
-        Map<Item, Booking> lastBookings = bookingRepository
-                .findFirstByItemInAndStartLessThanEqualAndStatusOrderByStartDesc(items, now, BookingStatus.APPROVED)
-                .stream()
-                .collect(toMap(Booking::getItem, identity()));
-        Map<Item, Booking> nextBookings = bookingRepository
-                .findFirstByItemInAndStartAfterAndStatusOrderByStart(items, now, BookingStatus.APPROVED)
-                .stream()
-                .collect(toMap(Booking::getItem, identity()));
-        return items.stream().map(item -> new ExtendItem(item)
-                .setComments(comments.getOrDefault(item, Collections.emptyList()))
-                .setLastBooking(lastBookings.get(item))
-                .setNextBooking(nextBookings.get(item))).collect(toList());
+    @Transactional(readOnly = true)
+    public Slice<OwnerItemView> getOwnerItemViews(long userId, Cursor after, Pageable pageable) {
+        getOwnerOrThrowNotFoundException(userId);
+        return ownerItemViews(userId, after == null ? 0 : after.getId(), pageable);
+    }
+
+    /**
+     * Reads the listing in keyset chunks, so only one chunk with its comments and bookings is held at a time.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamOwnerItemViews(long userId, Cursor after, int size, Consumer<OwnerItemView> action) {
+        getOwnerOrThrowNotFoundException(userId);
+        long afterId = after == null ? 0 : after.getId();
+        int remaining = size;
+        while (remaining > 0) {
+            Slice<OwnerItemView> items = ownerItemViews(userId, afterId,
+                    PageRequest.of(0, Math.min(remaining, streamChunkSize)));
+            items.forEach(action);
+            if (!items.hasNext()) {
+                return;
+            }
+            remaining -= items.getNumberOfElements();
+            afterId = items.getContent().get(items.getNumberOfElements() - 1).getId();
+        }
+    }
+
+    private Slice<OwnerItemView> ownerItemViews(long userId, long afterId, Pageable pageable) {
+        Slice<ItemView> items = itemRepository.findViewsByOwnerId(userId, afterId, pageable);
+        if (!items.hasContent()) {
+            return items.map(item -> OwnerItemView.of(item, null, null, List.of()));
+        }
+        List<Long> itemIds = items.map(ItemView::getId).getContent();
+        Map<Long, List<CommentView>> comments = findLatestComments(itemIds);
+        Map<Boolean, Map<Long, ShortBookingView>> bookings = itemBookingSummaryService.find(userId, itemIds.get(0),
+                itemIds.get(itemIds.size() - 1));
+        Map<Long, ShortBookingView> lastBookings = bookings.get(true);
+        Map<Long, ShortBookingView> nextBookings = bookings.get(false);
+        return items.map(item -> OwnerItemView.of(item, lastBookings.get(item.getId()),
+                nextBookings.get(item.getId()), comments.getOrDefault(item.getId(), List.of())));
     }
 
+    /**
+     * A window is answered by the database, the search index knows nothing of bookings.
+     */
     @Override
-    public List<Item> searchItems(String text, Pageable pageable) {
+    public List<Item> searchItems(String text, boolean ranked, FreeWindow free, Pageable pageable) {
+        if (free != null && ranked) {
+            return itemRepository.findFreeRankedByNameOrDescription(text, free.isWaiting(), free.getStart(),
+                    free.getEnd(), pageable).toList();
+        }
+        if (free != null) {
+            return itemRepository.findFreeLikingByNameOrDescription(text, free.isWaiting(), free.getStart(),
+                    free.getEnd(), pageable).toList();
+        }
+        if (itemSearchIndex.isReady()) {
+            return findAllByIdInOrder(itemSearchIndex.search(text, ranked, pageable));
+        }
+        if (ranked) {
+            return itemRepository.findRankedByNameOrDescription(text, pageable).toList();
+        }
         return itemRepository.findLikingByNameOrDescription(text, pageable).toList();
     }
 
+    @Override
+    public Slice<Item> searchItems(String text, FreeWindow free, Cursor after, int size) {
+        long afterId = after == null ? 0 : after.getId();
+        Pageable pageable = PageRequest.of(0, size);
+        if (free != null) {
+            return itemRepository.findFreeLikingByNameOrDescriptionSeek(text, free.isWaiting(), free.getStart(),
+                    free.getEnd(), afterId, pageable);
+        }
+        if (itemSearchIndex.isReady()) {
+            List<Long> ids = itemSearchIndex.searchAfter(text, afterId, size + 1);
+            boolean hasNext = ids.size() > size;
+            return new SliceImpl<>(findAllByIdInOrder(hasNext ? ids.subList(0, size) : ids), pageable, hasNext);
+        }
+        return itemRepository.findLikingByNameOrDescriptionSeek(text, afterId, pageable);
+    }
+
+    @Override
+    public long countByUserId(long userId) {
+        return itemRepository.countByOwner(getOwnerOrThrowNotFoundException(userId));
+    }
+
+    @Override
+    public long countSearchItems(String text, FreeWindow free) {
+        if (free != null) {
+            return itemRepository.countFreeLikingByNameOrDescription(text, free.isWaiting(), free.getStart(),
+                    free.getEnd());
+        }
+        if (itemSearchIndex.isReady()) {
+            return itemSearchIndex.search(text, false, Pageable.unpaged()).size();
+        }
+        return itemRepository.countLikingByNameOrDescription(text);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<CommentView> getComments(long itemId, Cursor after, int size) {
+        getItemOrThrowNotFoundException(itemId);
+        Cursor cursor = Cursor.descending(after);
+        return commentRepository.findViewsByItemIdSeek(itemId, cursor.getStart(), cursor.getId(),
+                PageRequest.of(0, size));
+    }
+
+    @Override
+    public List<AvailabilityInterval> getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        Item item = getItemOrThrowNotFoundException(itemId);
+        return itemAvailabilityService.find(itemId, item.getOwner().getId(), from, to);
+    }
+
     @Override
     public Comment addComment(Long userId, Long itemId, String commentText) {
         User user = getOwnerOrThrowNotFoundException(userId);
@@ -141,12 +253,28 @@ public class ItemServiceImpl implements ItemService {
         return commentRepository.save(comment);
     }
 
+    /**
+     * At most commentsPerItem latest comments of every item, newest first, in one query.
+     */
+    private Map<Long, List<CommentView>> findLatestComments(List<Long> itemIds) {
+        return commentRepository.findLatestByItemIdIn(itemIds, commentsPerItem).stream()
+                .map(LatestComment::toView)
+                .collect(groupingBy(CommentView::getItemId, toList()));
+    }
+
+    private List<Item> findAllByIdInOrder(List<Long> ids) {
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(toMap(Item::getId, identity()));
+        return ids.stream().map(items::get).filter(Objects::nonNull).collect(toList());
+    }
+
     private Item getItemOrThrowNotFoundException(long itemId) {
-        return itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("Item not found"));
+        return itemRepository.findViewById(itemId).map(OwnedItemView::toItem)
+                .orElseThrow(() -> new NotFoundException("Item not found"));
     }
 
     private User getOwnerOrThrowNotFoundException(long userId) {
-        return userRepository.findById(userId)
+        return userRepository.findViewById(userId).map(UserView::toUser)
                 .orElseThrow(() -> new NotFoundException(Variables.USER_WITH_ID_NOT_FOUND, userId));
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only comment with the name of its author.
+ */
+@Value
+public class CommentView {
+    long id;
+    long itemId;
+    String text;
+    String authorName;
+    LocalDateTime created;
+}
@@ -3,7 +3,7 @@ package ru.practicum.shareit.item.model;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ShortBookingView;
 
 import java.util.List;
 
@@ -11,9 +11,9 @@ import java.util.List;
 @Setter
 @Accessors(chain = true)
 public class ExtendItem extends Item {
-    private Booking lastBooking;
-    private Booking nextBooking;
-    private List<Comment> comments;
+    private ShortBookingView lastBooking;
+    private ShortBookingView nextBooking;
+    private List<CommentView> comments;
 
     public ExtendItem(Item item) {
         this.setId(item.getId())
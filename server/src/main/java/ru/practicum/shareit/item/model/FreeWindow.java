@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time a searched item has to be free in: no approved booking, nor a waiting one when waiting is set,
+ * overlaps start to end.
+ */
+@Value(staticConstructor = "of")
+public class FreeWindow {
+    LocalDateTime start;
+    LocalDateTime end;
+    boolean waiting;
+}
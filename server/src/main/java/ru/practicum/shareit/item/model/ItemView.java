@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Value;
+
+/**
+ * Read-only item row without its owner.
+ */
+@Value
+public class ItemView {
+    long id;
+    String name;
+    String description;
+    Boolean available;
+    Long requestId;
+}
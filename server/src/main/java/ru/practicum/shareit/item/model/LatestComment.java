@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One of the latest comments of an item, a row of the windowed top-N comment query.
+ */
+public interface LatestComment {
+    long getId();
+
+    long getItemId();
+
+    String getText();
+
+    String getAuthorName();
+
+    LocalDateTime getCreated();
+
+    default CommentView toView() {
+        return new CommentView(getId(), getItemId(), getText(), getAuthorName(), getCreated());
+    }
+}
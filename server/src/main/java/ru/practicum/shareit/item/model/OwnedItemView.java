@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Value;
+import ru.practicum.shareit.user.model.User;
+
+/**
+ * Read-only item row with the id of its owner, safe to share between requests.
+ */
+@Value
+public class OwnedItemView {
+    long id;
+    String name;
+    String description;
+    Boolean available;
+    Long requestId;
+    long ownerId;
+
+    /**
+     * A new detached item with the fields of the row. Its owner carries the id only.
+     */
+    public Item toItem() {
+        return Item.builder().id(id).name(name).description(description).available(available)
+                .requestId(requestId).owner(User.builder().id(ownerId).build()).build();
+    }
+}
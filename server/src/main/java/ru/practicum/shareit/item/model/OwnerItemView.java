@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.model.ShortBookingView;
+
+import java.util.List;
+
+/**
+ * Read-only item of an owner listing with its last and next approved bookings and comments.
+ */
+@Value
+public class OwnerItemView {
+    long id;
+    String name;
+    String description;
+    Boolean available;
+    ShortBookingView lastBooking;
+    ShortBookingView nextBooking;
+    List<CommentView> comments;
+
+    public static OwnerItemView of(ItemView item, ShortBookingView lastBooking, ShortBookingView nextBooking,
+                                   List<CommentView> comments) {
+        return new OwnerItemView(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                lastBooking, nextBooking, comments);
+    }
+}
@@ -1,18 +1,36 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.CommentView;
+import ru.practicum.shareit.item.model.LatestComment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    @Query("SELECT comment FROM Comment comment JOIN FETCH comment.author WHERE comment.item IN ?1")
-    List<Comment> findByItemIn(List<Item> items, Sort sorting);
+    /**
+     * The latest comments of every given item, at most {@code limit} per item, newest first.
+     */
+    @Query(value = "SELECT ranked.id, ranked.item_id AS \"itemId\", ranked.text, users.name AS \"authorName\", " +
+            "ranked.created FROM (" +
+            "SELECT id, item_id, text, author_id, created, " +
+            "ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY created DESC, id DESC) AS position " +
+            "FROM comments WHERE item_id IN (?1)) AS ranked " +
+            "JOIN users ON users.id = ranked.author_id " +
+            "WHERE ranked.position <= ?2 ORDER BY ranked.created DESC, ranked.id DESC", nativeQuery = true)
+    List<LatestComment> findLatestByItemIdIn(Collection<Long> itemIds, int limit);
 
-    @Query("SELECT comment FROM Comment comment JOIN FETCH comment.author WHERE comment.item.id = ?1")
-    List<Comment> findByItemId(long itemId);
+    @Query("SELECT new ru.practicum.shareit.item.model.CommentView(comment.id, comment.item.id, comment.text, " +
+            "author.name, comment.created) FROM Comment comment JOIN comment.author author " +
+            "WHERE comment.item.id = ?1 " +
+            "AND (comment.created < ?2 OR (comment.created = ?2 AND comment.id < ?3)) " +
+            "ORDER BY comment.created DESC, comment.id DESC")
+    Slice<CommentView> findViewsByItemIdSeek(long itemId, LocalDateTime beforeCreated, long beforeId,
+                                             Pageable pageable);
 }
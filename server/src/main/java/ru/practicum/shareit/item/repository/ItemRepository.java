@@ -1,26 +1,95 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Page;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.CacheConfig;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.item.model.OwnedItemView;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    String ITEM_VIEW = "SELECT new ru.practicum.shareit.item.model.ItemView(item.id, item.name, item.description, " +
+            "item.available, item.requestId) FROM Item item ";
+    String MATCHING = "WHERE (LOWER(item.name) LIKE LOWER(CONCAT('%',?1,'%')) " +
+            "OR LOWER(item.description) LIKE LOWER(CONCAT('%',?1,'%'))) AND item.available=TRUE ";
+    String SEARCH = "SELECT item FROM Item item " + MATCHING;
+    String COUNT_SEARCH = "SELECT count(item) FROM Item item " + MATCHING;
+    String RANKED = "ORDER BY CASE WHEN LOWER(item.name) LIKE LOWER(CONCAT(?1,'%')) THEN 0 " +
+            "WHEN LOWER(item.name) LIKE LOWER(CONCAT('%',?1,'%')) THEN 1 " +
+            "WHEN LOWER(item.description) LIKE LOWER(CONCAT(?1,'%')) THEN 2 " +
+            "ELSE 3 END, item.id";
+    /**
+     * Approved bookings of an item never overlap, so only the latest one starting before end can reach
+     * past start: one backward seek on the (item_id, status, start_date) index per matched item instead of
+     * a scan over its booking history. Waiting bookings may overlap each other and, when ?2 asks for them,
+     * are still scanned over the range. Items are probed before the page is cut, so pages stay full.
+     */
+    String FREE_BETWEEN = "AND NOT EXISTS (SELECT latest.id FROM Booking latest WHERE latest.item = item " +
+            "AND latest.status = ru.practicum.shareit.booking.BookingStatus.APPROVED AND latest.end > ?3 " +
+            "AND latest.start = (SELECT MAX(approved.start) FROM Booking approved WHERE approved.item = item " +
+            "AND approved.status = ru.practicum.shareit.booking.BookingStatus.APPROVED AND approved.start < ?4)) " +
+            "AND (?2 = FALSE OR NOT EXISTS (SELECT waiting.id FROM Booking waiting WHERE waiting.item = item " +
+            "AND waiting.status = ru.practicum.shareit.booking.BookingStatus.WAITING " +
+            "AND waiting.start < ?4 AND waiting.end > ?3)) ";
 
-    Page<Item> findAllByOwnerOrderByIdAsc(User user, Pageable pageable);
+    /**
+     * Cached: the row is immutable and shared between requests, an item to be modified is loaded by findById.
+     */
+    @Cacheable(cacheNames = CacheConfig.ITEMS, key = "#p0", unless = "#result == null")
+    @Query("SELECT new ru.practicum.shareit.item.model.OwnedItemView(item.id, item.name, item.description, " +
+            "item.available, item.requestId, item.owner.id) FROM Item item WHERE item.id = ?1")
+    Optional<OwnedItemView> findViewById(long id);
 
-    @Query("SELECT item FROM Item item " +
-            "WHERE (LOWER(item.name) LIKE LOWER(CONCAT('%',?1,'%')) " +
-            "OR LOWER(item.description) LIKE LOWER(CONCAT('%',?1,'%'))) AND item.available=TRUE")
-    Page<Item> findLikingByNameOrDescription(String text, Pageable pageable);
+    long countByOwner(User user);
+
+    @Query(SEARCH)
+    Slice<Item> findLikingByNameOrDescription(String text, Pageable pageable);
+
+    @Query(COUNT_SEARCH)
+    long countLikingByNameOrDescription(String text);
+
+    @Query(SEARCH + "AND item.id > ?2 ORDER BY item.id")
+    Slice<Item> findLikingByNameOrDescriptionSeek(String text, long id, Pageable pageable);
+
+    @Query(SEARCH + RANKED)
+    Slice<Item> findRankedByNameOrDescription(String text, Pageable pageable);
+
+    @Query(SEARCH + FREE_BETWEEN)
+    Slice<Item> findFreeLikingByNameOrDescription(String text, boolean waiting,
+                                                  LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @Query(COUNT_SEARCH + FREE_BETWEEN)
+    long countFreeLikingByNameOrDescription(String text, boolean waiting, LocalDateTime start, LocalDateTime end);
+
+    @Query(SEARCH + FREE_BETWEEN + "AND item.id > ?5 ORDER BY item.id")
+    Slice<Item> findFreeLikingByNameOrDescriptionSeek(String text, boolean waiting,
+                                                      LocalDateTime start, LocalDateTime end, long id,
+                                                      Pageable pageable);
+
+    @Query(SEARCH + FREE_BETWEEN + RANKED)
+    Slice<Item> findFreeRankedByNameOrDescription(String text, boolean waiting,
+                                                  LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    List<Item> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
 
     @Query("SELECT item, item.owner.id FROM Item item WHERE item.requestId = ?1")
     List<Item> findAllByRequestOrderByIdAsc(long requestId);
 
     @Query("SELECT item, item.owner.id FROM Item item WHERE item.requestId IN ?1")
     List<Item> findAllByRequestInOrderByIdAsc(List<Long> requestIds);
+
+    @Query(ITEM_VIEW + "WHERE item.owner.id = ?1 AND item.id > ?2 ORDER BY item.id")
+    Slice<ItemView> findViewsByOwnerId(long ownerId, long afterId, Pageable pageable);
+
+    @Query(ITEM_VIEW + "WHERE item.requestId IN ?1 ORDER BY item.id")
+    List<ItemView> findViewsByRequestIdIn(Collection<Long> requestIds);
 }
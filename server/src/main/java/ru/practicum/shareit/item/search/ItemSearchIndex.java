@@ -0,0 +1,283 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over item names and descriptions.
+ * Answers the same lower-cased substring search as {@link ItemRepository#findLikingByNameOrDescription},
+ * results are ordered by item id.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final Timer rebuildTimer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Segment segment = new Segment();
+    private Map<Long, Item> pending;
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${shareit.search.index.enabled:false}") boolean enabled,
+                           @Value("${shareit.search.index.chunk-size:1000}") int chunkSize) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.rebuildTimer = Timer.builder("shareit.search.index.rebuild")
+                .description("Time to build the item search index from the database")
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.index.items", this, index -> index.segment.items.size())
+                .description("Items held by the item search index")
+                .register(meterRegistry);
+        Gauge.builder("shareit.search.index.terms", this, index -> index.segment.termCount())
+                .description("Distinct trigrams held by the item search index")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        rebuildTimer.record(() -> {
+            lock.writeLock().lock();
+            try {
+                pending = new HashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Segment rebuilt = new Segment();
+            long lastId = 0;
+            List<Item> chunk;
+            do {
+                chunk = itemRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, chunkSize));
+                for (Item item : chunk) {
+                    rebuilt.put(item);
+                    lastId = item.getId();
+                }
+            } while (chunk.size() == chunkSize);
+            lock.writeLock().lock();
+            try {
+                pending.values().forEach(rebuilt::put);
+                pending = null;
+                segment = rebuilt;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Item search index built: {} items, {} terms", rebuilt.items.size(), rebuilt.termCount());
+        });
+    }
+
+    public void index(Item item) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.put(item.getId(), item);
+            }
+            segment.put(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns ids of available items whose name or description contains the lower-cased text.
+     */
+    public List<Long> search(String text, boolean ranked, Pageable pageable) {
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        lock.readLock().lock();
+        try {
+            return segment.search(text.toLowerCase(Locale.ROOT), ranked, 0, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keyset variant of {@link #search}: up to limit matching ids greater than afterId, in id order.
+     */
+    public List<Long> searchAfter(String text, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            return segment.search(text.toLowerCase(Locale.ROOT), false, afterId, 0, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static final class IndexedItem {
+        private final String name;
+        private final String description;
+
+        private IndexedItem(Item item) {
+            this.name = item.getName().toLowerCase(Locale.ROOT);
+            this.description = item.getDescription().toLowerCase(Locale.ROOT);
+        }
+
+        private int rank(String text) {
+            if (name.startsWith(text)) {
+                return 0;
+            }
+            if (name.contains(text)) {
+                return 1;
+            }
+            return description.startsWith(text) ? 2 : 3;
+        }
+
+        private boolean matches(String text) {
+            return name.contains(text) || description.contains(text);
+        }
+    }
+
+    private static final class Segment {
+        private final Map<String, PostingList> nameGrams = new HashMap<>();
+        private final Map<String, PostingList> descriptionGrams = new HashMap<>();
+        private final Map<Long, IndexedItem> items = new HashMap<>();
+        private final BitSet available = new BitSet();
+
+        private void put(Item item) {
+            long id = item.getId();
+            IndexedItem previous = items.get(id);
+            if (previous != null) {
+                unlink(nameGrams, previous.name, id);
+                unlink(descriptionGrams, previous.description, id);
+            }
+            IndexedItem current = new IndexedItem(item);
+            items.put(id, current);
+            link(nameGrams, current.name, id);
+            link(descriptionGrams, current.description, id);
+            available.set(Math.toIntExact(id), Boolean.TRUE.equals(item.getAvailable()));
+        }
+
+        private int termCount() {
+            Set<String> terms = new HashSet<>(nameGrams.keySet());
+            terms.addAll(descriptionGrams.keySet());
+            return terms.size();
+        }
+
+        private List<Long> search(String text, boolean ranked, long afterId, long offset, int limit) {
+            List<Long> page = new ArrayList<>();
+            List<Long> matches = new ArrayList<>();
+            long skipped = 0;
+            if (text.length() < GRAM) {
+                int from = Math.toIntExact(afterId + 1);
+                for (int id = available.nextSetBit(from); id >= 0; id = available.nextSetBit(id + 1)) {
+                    if (items.get((long) id).matches(text)) {
+                        matches.add((long) id);
+                        if (!ranked && matches.size() >= offset + limit) {
+                            break;
+                        }
+                    }
+                }
+            } else {
+                Set<String> grams = grams(text);
+                PostingList candidates = all(nameGrams, grams).union(all(descriptionGrams, grams));
+                for (int i = 0; i < candidates.size(); i++) {
+                    long id = candidates.get(i);
+                    if (id > afterId && available.get((int) id) && items.get(id).matches(text)) {
+                        matches.add(id);
+                        if (!ranked && matches.size() >= offset + limit) {
+                            break;
+                        }
+                    }
+                }
+            }
+            if (ranked) {
+                matches.sort(Comparator.comparingInt((Long id) -> items.get(id).rank(text))
+                        .thenComparing(Comparator.naturalOrder()));
+            }
+            for (Long id : matches) {
+                if (skipped++ < offset) {
+                    continue;
+                }
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(id);
+            }
+            return page;
+        }
+
+        private static PostingList all(Map<String, PostingList> index, Set<String> grams) {
+            List<PostingList> lists = new ArrayList<>();
+            for (String gram : grams) {
+                PostingList list = index.get(gram);
+                if (list == null) {
+                    return new PostingList();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(PostingList::size));
+            PostingList result = lists.get(0);
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result = result.intersect(lists.get(i));
+            }
+            return result;
+        }
+
+        private static void link(Map<String, PostingList> index, String text, long id) {
+            for (String gram : grams(text)) {
+                index.computeIfAbsent(gram, key -> new PostingList()).add(id);
+            }
+        }
+
+        private static void unlink(Map<String, PostingList> index, String text, long id) {
+            for (String gram : grams(text)) {
+                PostingList list = index.get(gram);
+                if (list != null) {
+                    list.remove(id);
+                    if (list.isEmpty()) {
+                        index.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+}
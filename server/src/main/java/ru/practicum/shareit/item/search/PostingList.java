@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+class PostingList {
+    private long[] ids;
+    private int size;
+
+    PostingList() {
+        this(new long[4], 0);
+    }
+
+    private PostingList(long[] ids, int size) {
+        this.ids = ids;
+        this.size = size;
+    }
+
+    void add(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+        }
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        ids[position] = id;
+        size++;
+    }
+
+    void remove(long id) {
+        int position = Arrays.binarySearch(ids, 0, size, id);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    PostingList intersect(PostingList other) {
+        long[] result = new long[Math.min(size, other.size)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (ids[i] < other.ids[j]) {
+                i++;
+            } else if (ids[i] > other.ids[j]) {
+                j++;
+            } else {
+                result[count++] = ids[i];
+                i++;
+                j++;
+            }
+        }
+        return new PostingList(result, count);
+    }
+
+    PostingList union(PostingList other) {
+        long[] result = new long[size + other.size];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && ids[i] < other.ids[j])) {
+                result[count++] = ids[i++];
+            } else if (i == size || ids[i] > other.ids[j]) {
+                result[count++] = other.ids[j++];
+            } else {
+                result[count++] = ids[i];
+                i++;
+                j++;
+            }
+        }
+        return new PostingList(result, count);
+    }
+}
@@ -2,7 +2,10 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -12,10 +15,12 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.Cursor;
 import ru.practicum.shareit.Util;
 import ru.practicum.shareit.Variables;
 import ru.practicum.shareit.request.dto.RequestDto;
 import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.model.RequestView;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -51,28 +56,47 @@ public class RequestController {
 
     //получить список запросов, созданных другими пользователями
     @GetMapping
-    public List<RequestDto> getRequesterAll(@RequestHeader(Variables.USER_ID) Long userId,
-                                            @RequestParam(defaultValue = "0") int from,
-                                            @RequestParam(defaultValue = "20") int size) {
+    public ResponseEntity<List<RequestDto>> getRequesterAll(@RequestHeader(Variables.USER_ID) Long userId,
+                                                            @RequestParam(defaultValue = "0") int from,
+                                                            @RequestParam(defaultValue = "20") int size,
+                                                            @RequestParam(defaultValue = "false") boolean total) {
         Pageable pageable = Util.getPageable(from, size);
         log.info("Request on get all requests from user id: {}", userId);
-        return requestService.getAllForUser(userId, pageable)
-                .stream()
-                .map(requestMapper::toDto)
-                .collect(Collectors.toList());
+        List<RequestDto> requests = toDtos(requestService.getAllForUser(userId, pageable));
+        return Util.withTotalCount(ResponseEntity.ok(requests), total, () -> requestService.countAllForUser(userId));
     }
 
     // Просмотр пользователем списка всех его запросов с указанием ответов на них
     @GetMapping("/all")
-    public List<RequestDto> getAll(@RequestHeader(Variables.USER_ID) Long userId,
-                                   @RequestParam(defaultValue = "0") int from,
-                                   @RequestParam(defaultValue = "20") int size) {
-        Pageable pageable = Util.getPageable(from, size);
-        List<RequestDto> dtoList = requestService.getAll(userId, pageable)
-                .stream()
+    public ResponseEntity<List<RequestDto>> getAll(@RequestHeader(Variables.USER_ID) Long userId,
+                                                   @RequestParam(defaultValue = "0") int from,
+                                                   @RequestParam(defaultValue = "20") int size,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "false") boolean total) {
+        log.info("Request on get all requests, cursor: {}", cursor);
+        ResponseEntity<List<RequestDto>> response;
+        if (cursor != null) {
+            Slice<RequestView> requests = requestService.getAllViews(userId, Cursor.decode(cursor),
+                    PageRequest.of(0, size));
+            response = Util.toCursorResponse(requests, toViewDtos(requests.getContent()),
+                    request -> Cursor.of(request.getId()));
+        } else {
+            Pageable pageable = Util.getPageable(from, size);
+            response = ResponseEntity.ok(toViewDtos(requestService.getAllViews(userId, null, pageable)
+                    .getContent()));
+        }
+        return Util.withTotalCount(response, total, () -> requestService.countAll(userId));
+    }
+
+    private List<RequestDto> toDtos(List<Request> requests) {
+        return requests.stream()
+                .map(requestMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    private List<RequestDto> toViewDtos(List<RequestView> requests) {
+        return requests.stream()
                 .map(requestMapper::toDto)
                 .collect(Collectors.toList());
-        log.info("Request on get all requests");
-        return dtoList;
     }
 }
@@ -4,6 +4,7 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.shareit.request.dto.RequestDto;
 import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.model.RequestView;
 
 @Mapper(componentModel = "spring")
 public interface RequestMapper {
@@ -11,4 +12,6 @@ public interface RequestMapper {
     Request fromDto(RequestDto requestDto);
 
     RequestDto toDto(Request request);
+
+    RequestDto toDto(RequestView request);
 }
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.request;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.Cursor;
 import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.model.RequestView;
 
 import java.util.List;
 
@@ -12,5 +15,16 @@ public interface RequestService {
 
     List<Request> getAll(long userId, Pageable pageable);
 
+    Slice<Request> getAll(long userId, Cursor after, int size);
+
+    /**
+     * Read-only listing of requests of other users, newest first, the first page when after is null.
+     */
+    Slice<RequestView> getAllViews(long userId, Cursor after, Pageable pageable);
+
     List<Request> getAllForUser(Long userId, Pageable pageable);
+
+    long countAll(long userId);
+
+    long countAllForUser(Long userId);
 }
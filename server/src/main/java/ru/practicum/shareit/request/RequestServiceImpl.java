@@ -2,15 +2,23 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.Cursor;
 import ru.practicum.shareit.Variables;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.model.RequestView;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserView;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
@@ -48,19 +56,48 @@ public class RequestServiceImpl implements RequestService {
 
     @Override
     public List<Request> getAll(long userId, Pageable pageable) {
-        List<Request> requests = requestRepository.findAllByRequesterIdNot(userId, pageable).toList();
-        List<Long> requestIds = requests.stream().map(Request::getId).collect(Collectors.toList());
-        Map<Long, List<Item>> items = itemRepository.findAllByRequestInOrderByIdAsc(requestIds).stream()
-                .collect(Collectors.groupingBy(Item::getRequestId, Collectors.toList()));
-        return requests.stream()
-                .peek(request -> request.setItems(items.getOrDefault(request.getId(), Collections.emptyList())))
-                .collect(Collectors.toList());
+        return withItems(requestRepository.findAllByRequesterIdNot(userId, pageable).toList());
+    }
+
+    @Override
+    public Slice<Request> getAll(long userId, Cursor after, int size) {
+        long beforeId = after == null ? Long.MAX_VALUE : after.getId();
+        Slice<Request> requests = requestRepository.findAllByRequesterIdNotAndIdLessThanOrderByIdDesc(userId,
+                beforeId, PageRequest.of(0, size));
+        return new SliceImpl<>(withItems(requests.getContent()), requests.getPageable(), requests.hasNext());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<RequestView> getAllViews(long userId, Cursor after, Pageable pageable) {
+        long beforeId = after == null ? Long.MAX_VALUE : after.getId();
+        Slice<RequestView> requests = requestRepository.findViewsByRequesterIdNot(userId, beforeId, pageable);
+        if (!requests.hasContent()) {
+            return requests;
+        }
+        List<Long> requestIds = requests.map(RequestView::getId).getContent();
+        Map<Long, List<ItemView>> items = itemRepository.findViewsByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemView::getRequestId, Collectors.toList()));
+        return requests.map(request -> request.withItems(items.getOrDefault(request.getId(), List.of())));
     }
 
     @Override
     public List<Request> getAllForUser(Long userId, Pageable pageable) {
         User requester = getUserOrThrowException(userId);
-        List<Request> requests = requestRepository.findAllByRequester(requester, pageable).toList();
+        return withItems(requestRepository.findAllByRequester(requester, pageable).toList());
+    }
+
+    @Override
+    public long countAll(long userId) {
+        return requestRepository.countByRequesterIdNot(userId);
+    }
+
+    @Override
+    public long countAllForUser(Long userId) {
+        return requestRepository.countByRequester(getUserOrThrowException(userId));
+    }
+
+    private List<Request> withItems(List<Request> requests) {
         List<Long> requestIds = requests.stream().map(Request::getId).collect(Collectors.toList());
         Map<Long, List<Item>> items = itemRepository.findAllByRequestInOrderByIdAsc(requestIds).stream()
                 .collect(Collectors.groupingBy(Item::getRequestId, Collectors.toList()));
@@ -70,7 +107,7 @@ public class RequestServiceImpl implements RequestService {
     }
 
     private User getUserOrThrowException(long userId) {
-        return userRepository.findById(userId)
+        return userRepository.findViewById(userId).map(UserView::toUser)
                 .orElseThrow(() -> new NotFoundException(Variables.USER_WITH_ID_NOT_FOUND, userId));
     }
 }
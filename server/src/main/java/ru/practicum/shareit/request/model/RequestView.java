@@ -0,0 +1,26 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.With;
+import ru.practicum.shareit.item.model.ItemView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read-only request with the items offered for it, the items are attached after the request rows are selected.
+ */
+@Value
+@AllArgsConstructor
+public class RequestView {
+    long id;
+    String description;
+    LocalDateTime created;
+    @With
+    List<ItemView> items;
+
+    public RequestView(long id, String description, LocalDateTime created) {
+        this(id, description, created, List.of());
+    }
+}
@@ -1,14 +1,27 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.model.RequestView;
 import ru.practicum.shareit.user.model.User;
 
 public interface RequestRepository extends JpaRepository<Request, Long> {
 
-    Page<Request> findAllByRequesterIdNot(Long requester, Pageable pageable);
+    Slice<Request> findAllByRequesterIdNot(Long requester, Pageable pageable);
 
-    Page<Request> findAllByRequester(User requester, Pageable pageable);
+    long countByRequesterIdNot(Long requester);
+
+    Slice<Request> findAllByRequesterIdNotAndIdLessThanOrderByIdDesc(Long requester, Long id, Pageable pageable);
+
+    Slice<Request> findAllByRequester(User requester, Pageable pageable);
+
+    long countByRequester(User requester);
+
+    @Query("SELECT new ru.practicum.shareit.request.model.RequestView(request.id, request.description, " +
+            "request.created) FROM Request request WHERE request.requester.id <> ?1 AND request.id < ?2 " +
+            "ORDER BY request.id DESC")
+    Slice<RequestView> findViewsByRequesterIdNot(long requesterId, long beforeId, Pageable pageable);
 }
@@ -2,10 +2,13 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.CacheConfig;
 import ru.practicum.shareit.Variables;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserView;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
@@ -23,9 +26,11 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     public User edit(Long id, User updatedUser) {
         boolean isUpdated = false;
-        User user = returnUserOrThrowUserNotFoundException(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(Variables.USER_WITH_ID_NOT_FOUND, id));
         log.info("Update: {}", user);
         String updatedUserEmail = updatedUser.getEmail();
         if (updatedUserEmail != null && !updatedUserEmail.equals(user.getEmail()) && !updatedUserEmail.isBlank()) {
@@ -56,12 +61,13 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id")
     public void delete(Long id) {
         userRepository.deleteById(id);
     }
 
     private User returnUserOrThrowUserNotFoundException(Long id) {
-        Optional<User> optionalUser = userRepository.findById(id);
+        Optional<User> optionalUser = userRepository.findViewById(id).map(UserView::toUser);
         return optionalUser.orElseThrow(
                 () -> {
                     log.info("Throw new NotFoundException");
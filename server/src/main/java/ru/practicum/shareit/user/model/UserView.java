@@ -0,0 +1,20 @@
+package ru.practicum.shareit.user.model;
+
+import lombok.Value;
+
+/**
+ * Read-only user row, safe to share between requests.
+ */
+@Value
+public class UserView {
+    long id;
+    String name;
+    String email;
+
+    /**
+     * A new detached user with the fields of the row, free for the caller to use.
+     */
+    public User toUser() {
+        return User.builder().id(id).name(name).email(email).build();
+    }
+}
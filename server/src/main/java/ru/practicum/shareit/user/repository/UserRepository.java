@@ -1,10 +1,22 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.CacheConfig;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserView;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    /**
+     * Cached: the row is immutable and shared between requests, a user to be modified is loaded by findById.
+     */
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#p0", unless = "#result == null")
+    @Query("SELECT new ru.practicum.shareit.user.model.UserView(user.id, user.name, user.email) " +
+            "FROM User user WHERE user.id = ?1")
+    Optional<UserView> findViewById(long id);
+
     Optional<User> findByEmail(String email);
 }
@@ -0,0 +1,16 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Trigram indexes serve LIKE '%text%' on the lower-cased columns used by item search.
+-- Only available items are ever searched, so the indexes are partial.
+CREATE INDEX IF NOT EXISTS items_name_trgm ON items
+    USING gin (LOWER(name) gin_trgm_ops) WHERE is_available = TRUE;
+
+CREATE INDEX IF NOT EXISTS items_description_trgm ON items
+    USING gin (LOWER(description) gin_trgm_ops) WHERE is_available = TRUE;
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- No two approved bookings of an item overlap, whoever writes them. The server checks the same rule
+-- holding the item lock and answers with an error before the constraint is hit.
+ALTER TABLE bookings ADD CONSTRAINT bookings_approved_no_overlap
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&) WHERE (status = 'APPROVED');
@@ -3,10 +3,22 @@ DROP TABLE IF EXISTS requests CASCADE;
 DROP TABLE IF EXISTS items CASCADE;
 DROP TABLE IF EXISTS comments CASCADE;
 DROP TABLE IF EXISTS bookings CASCADE;
+DROP TABLE IF EXISTS item_booking_summary CASCADE;
+DROP TABLE IF EXISTS item_availability CASCADE;
 DROP INDEX IF EXISTS name_description;
 
+-- ids are taken by the server in blocks of 50 (pooled-lo): a sequence value is the first id of a block,
+-- so that inserts can be sent in JDBC batches; the increment has to match allocationSize of the entities.
+-- The sequences are kept when the tables are recreated, so that a server still holding a block
+-- can not hand out an id taken after the restart
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS users (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT NOT NULL,
     name VARCHAR(255) NOT NULL,
     email VARCHAR(512) NOT NULL,
     CONSTRAINT pk_user PRIMARY KEY (id),
@@ -15,7 +27,7 @@ CREATE TABLE IF NOT EXISTS users (
 
 
 CREATE TABLE IF NOT EXISTS requests (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT NOT NULL,
     description VARCHAR(500) NOT NULL,
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     user_id BIGINT NOT NULL,
@@ -25,7 +37,7 @@ CREATE TABLE IF NOT EXISTS requests (
 
 
 CREATE TABLE IF NOT EXISTS items (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT NOT NULL,
     owner_id BIGINT NOT NULL,
     name VARCHAR(255) NOT NULL,
     description VARCHAR(512) NOT NULL,
@@ -36,10 +48,8 @@ CREATE TABLE IF NOT EXISTS items (
     CONSTRAINT fk_items_to_requests FOREIGN KEY(request_id) REFERENCES requests(id)
 );
 
-CREATE INDEX IF NOT EXISTS name_description ON items (name, description);
-
 CREATE TABLE IF NOT EXISTS comments (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    id BIGINT NOT NULL,
     text VARCHAR(500) NOT NULL, author_id BIGINT NOT NULL,
     item_id BIGINT NOT NULL,
     created TIMESTAMP WITHOUT TIME ZONE,
@@ -50,13 +60,51 @@ CREATE TABLE IF NOT EXISTS comments (
 
 
 CREATE TABLE IF NOT EXISTS bookings (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-    start_date TIMESTAMP WITHOUT TIME ZONE,
-    end_date TIMESTAMP WITHOUT TIME ZONE,
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     status VARCHAR(50),
     booker_id BIGINT NOT NULL,
     item_id BIGINT NOT NULL,
+    owner_id BIGINT NOT NULL,
     CONSTRAINT pk_booking PRIMARY KEY (id),
     CONSTRAINT fk_bookings_to_users FOREIGN KEY(booker_id) REFERENCES users(id),
-    CONSTRAINT fk_bookings_to_items FOREIGN KEY(item_id) REFERENCES items(id)
-);
\ No newline at end of file
+    CONSTRAINT fk_bookings_to_items FOREIGN KEY(item_id) REFERENCES items(id),
+    CONSTRAINT fk_bookings_to_owners FOREIGN KEY(owner_id) REFERENCES users(id)
+);
+
+-- owner_id duplicates items.owner_id so that owner listings do not join items
+CREATE INDEX IF NOT EXISTS bookings_booker_start ON bookings (booker_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS bookings_owner_start ON bookings (owner_id, start_date DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_status_start ON bookings (item_id, status, start_date);
+CREATE INDEX IF NOT EXISTS comments_item_created ON comments (item_id, created DESC, id DESC);
+
+-- last and next approved booking of every item, maintained on approval and rolled forward by the server
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+    item_id BIGINT NOT NULL,
+    owner_id BIGINT NOT NULL,
+    last_booking_id BIGINT,
+    last_start TIMESTAMP WITHOUT TIME ZONE,
+    last_end TIMESTAMP WITHOUT TIME ZONE,
+    last_booker_id BIGINT,
+    next_booking_id BIGINT,
+    next_start TIMESTAMP WITHOUT TIME ZONE,
+    next_end TIMESTAMP WITHOUT TIME ZONE,
+    next_booker_id BIGINT,
+    CONSTRAINT pk_item_booking_summary PRIMARY KEY (item_id),
+    CONSTRAINT fk_item_booking_summary_to_items FOREIGN KEY(item_id) REFERENCES items(id)
+);
+
+CREATE INDEX IF NOT EXISTS item_booking_summary_owner_item ON item_booking_summary (owner_id, item_id);
+CREATE INDEX IF NOT EXISTS item_booking_summary_next_start ON item_booking_summary (next_start);
+
+-- hours taken by approved bookings of an item from the start of the day on, one bit per hour,
+-- built on the first read and kept up to date by approvals
+CREATE TABLE IF NOT EXISTS item_availability (
+    item_id BIGINT NOT NULL,
+    origin TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    horizon_end TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    busy_slots BYTEA NOT NULL,
+    CONSTRAINT pk_item_availability PRIMARY KEY (item_id),
+    CONSTRAINT fk_item_availability_to_items FOREIGN KEY(item_id) REFERENCES items(id)
+);
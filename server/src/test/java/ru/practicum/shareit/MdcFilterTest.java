@@ -0,0 +1,26 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MdcFilterTest {
+
+    @Test
+    void requestIdShouldAdoptGatewayId() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+        request.addHeader(Variables.REQUEST_ID, "3w5e11264sgsf");
+
+        assertThat(MdcFilter.requestId(request)).isEqualTo("3w5e11264sgsf");
+    }
+
+    @Test
+    void requestIdShouldBeGeneratedWithoutUsableHeader() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+        request.addHeader(Variables.REQUEST_ID, "x".repeat(65));
+
+        assertThat(MdcFilter.requestId(request)).isNotBlank().hasSizeLessThanOrEqualTo(13);
+        assertThat(MdcFilter.requestId(new MockHttpServletRequest("GET", "/items"))).isNotBlank();
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.ItemAvailabilityService;
+import ru.practicum.shareit.booking.ItemBookingSummaryService;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.Request;
+import ru.practicum.shareit.request.repository.RequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exact number of SQL statements per endpoint with cold caches, several rows per list,
+ * so that a lazy association loaded per row changes the count.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SqlStatementCountTest {
+    private static final int ROWS = 3;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private RequestRepository requestRepository;
+    @Autowired
+    private ItemBookingSummaryService itemBookingSummaryService;
+    @Autowired
+    private ItemAvailabilityService itemAvailabilityService;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private Request request;
+    private final List<Booking> waiting = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() {
+        owner = userRepository.save(User.builder().name("Owner").email("count-owner@mail.ru").build());
+        booker = userRepository.save(User.builder().name("Booker").email("count-booker@mail.ru").build());
+        request = requestRepository.save(Request.builder().description("Нужна дрель")
+                .created(LocalDateTime.now()).requester(booker).build());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            Item saved = itemRepository.save(Item.builder().name("Дрель " + i).description("ударная")
+                    .available(true).owner(owner).requestId(request.getId()).build());
+            bookingRepository.save(Booking.builder().status(BookingStatus.APPROVED).item(saved).booker(booker)
+                    .owner(owner).start(now.minusDays(2)).end(now.minusDays(1)).build());
+            waiting.add(bookingRepository.save(Booking.builder().status(BookingStatus.WAITING).item(saved)
+                    .booker(booker).owner(owner).start(now.plusDays(1 + i)).end(now.plusDays(2 + i)).build()));
+            commentRepository.save(Comment.builder().text("Отличная").author(booker).item(saved)
+                    .created(now).build());
+            item = saved;
+        }
+        itemBookingSummaryService.rebuild();
+    }
+
+    @Test
+    void bookingEndpoints() throws Exception {
+        // бронирование вместе с вещью и арендатором, затем обновление статуса: блокировка сводки
+        // и поиск пересечения с одобренными, календарь вещи строится при первом одобрении: чтение,
+        // одобренные бронирования, вставка, потом сводка по вещи: блокировка строки, пересчет, запись
+        assertThat(sqlCount(get("/bookings/{bookingId}", waiting.get(0).getId()), booker)).isEqualTo(1);
+        assertThat(sqlCount(patch("/bookings/{bookingId}", waiting.get(1).getId())
+                .param("approved", "true"), owner)).isEqualTo(10);
+        assertThat(sqlCount(get("/bookings"), booker)).isEqualTo(2);
+        assertThat(sqlCount(get("/bookings/owner"), owner)).isEqualTo(2);
+        // пакетное отклонение: бронирования одним запросом и один UPDATE на весь пакет
+        assertThat(sqlCount(patch("/bookings/owner/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bookingIds\":[" + waiting.get(0).getId() + "," + waiting.get(2).getId()
+                        + "],\"approved\":false}"), owner)).isEqualTo(2);
+    }
+
+    @Test
+    void itemEndpoints() throws Exception {
+        // вещь, комментарии, сводка по бронированиям; список еще и владелец
+        assertThat(sqlCount(get("/items/{itemId}", item.getId()), owner)).isEqualTo(3);
+        assertThat(sqlCount(get("/items"), owner)).isEqualTo(4);
+        assertThat(sqlCount(get("/items/{itemId}/comments", item.getId()), booker)).isEqualTo(2);
+        assertThat(sqlCount(get("/items/search").param("text", "дрель"), booker)).isEqualTo(1);
+        // календарь вещи: без битовой карты еще и бронирования окна, затем вещь и построенная в фоне карта
+        LocalDateTime from = LocalDate.now().plusDays(1).atStartOfDay();
+        assertThat(sqlCount(availability(from), booker)).isEqualTo(3);
+        itemAvailabilityService.rebuild();
+        assertThat(sqlCount(availability(from), booker)).isEqualTo(2);
+    }
+
+    private MockHttpServletRequestBuilder availability(LocalDateTime from) {
+        return get("/items/{itemId}/availability", item.getId())
+                .param("from", from.toString())
+                .param("to", from.plusDays(30).toString());
+    }
+
+    @Test
+    void requestEndpoints() throws Exception {
+        // пользователь, запросы и вещи по ним одним запросом
+        assertThat(sqlCount(get("/requests/{requestId}", request.getId()), owner)).isEqualTo(3);
+        assertThat(sqlCount(get("/requests"), booker)).isEqualTo(3);
+        assertThat(sqlCount(get("/requests/all"), owner)).isEqualTo(2);
+    }
+
+    private int sqlCount(MockHttpServletRequestBuilder request, User user) throws Exception {
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+        String count = mvc.perform(request.header(Variables.USER_ID, user.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(Variables.SQL_COUNT);
+        return Integer.parseInt(Objects.requireNonNull(count));
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlStatementCounterTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void getBookingShouldReportSqlCountAndRecordMetrics() throws Exception {
+        User owner = userRepository.save(User.builder().name("Owner").email("metrics-owner@mail.ru").build());
+        User booker = userRepository.save(User.builder().name("Booker").email("metrics-booker@mail.ru").build());
+        Item item = itemRepository.save(Item.builder().name("Дрель").description("ударная")
+                .available(true).owner(owner).build());
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking = bookingRepository.save(Booking.builder().status(BookingStatus.WAITING)
+                .item(item).booker(booker).owner(owner).start(now.plusDays(1)).end(now.plusDays(2)).build());
+
+        MvcResult result = mvc.perform(get("/bookings/{bookingId}", booking.getId())
+                        .header(Variables.USER_ID, booker.getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(Integer.parseInt(result.getResponse().getHeader(Variables.SQL_COUNT))).isPositive();
+        assertThat(SqlStatementCounter.current()).isZero();
+        assertThat(meterRegistry.get("shareit.sql.statements")
+                .tag("uri", "/bookings/{bookingId}").summary().totalAmount()).isPositive();
+        assertThat(meterRegistry.get("spring.data.repository.invocations")
+                .tag("repository", "BookingRepository").tag("method", "findById").timer().count()).isPositive();
+    }
+}
@@ -66,24 +66,28 @@ public class TestDataInitializer {
                 .status(BookingStatus.APPROVED)
                 .booker(den)
                 .item(item1)
+                .owner(vik)
                 .start(now.minusHours(4L))
                 .end(now.minusHours(2L)).build();
         booking2 = Booking.builder()
                 .status(BookingStatus.REJECTED)
                 .booker(den)
                 .item(item1)
+                .owner(vik)
                 .start(now.minusHours(1L))
                 .end(now.plusHours(1L)).build();
         booking3 = Booking.builder()
                 .status(BookingStatus.APPROVED)
                 .booker(den)
                 .item(item2)
+                .owner(vik)
                 .start(now.minusHours(1L))
                 .end(now.plusHours(1L)).build();
         booking4 = Booking.builder()
                 .status(BookingStatus.WAITING)
                 .booker(vik)
                 .item(item3)
+                .owner(den)
                 .start(now.plusHours(2L))
                 .end(now.plusHours(3L)).build();
         bookingRepository.saveAll(Arrays.asList(booking1, booking2, booking3, booking4));
@@ -6,24 +6,39 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.BatchEntry;
+import ru.practicum.shareit.Cursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusBatchDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.exception.NotAvailableException;
+import ru.practicum.shareit.exception.NotFoundException;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookingController.class)
@@ -48,6 +63,10 @@ class BookingControllerTest {
                 .start(LocalDateTime.now().plusMinutes(2L))
                 .end(LocalDateTime.now().plusHours(2L))
                 .build();
+        when(bookingService.getBookerBookingViews(anyLong(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(bookingService.getOwnerBookingViews(anyLong(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of()));
     }
 
     @Test
@@ -75,6 +94,46 @@ class BookingControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void createBookingsShouldReturnResultPerEntry() throws Exception {
+        Booking booking = new Booking();
+        when(bookingMapper.fromDto(any())).thenReturn(booking);
+        when(bookingMapper.toDto(any(Booking.class))).thenReturn(bookingDto);
+        when(bookingService.createBookings(any(), eq(1L))).thenReturn(List.of(BatchEntry.of(0, booking),
+                BatchEntry.failed(1, new NotFoundException("Item with ID: {0} not found", 5L))));
+
+        mockMvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(bookingDto, bookingDto)))
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].booking.itemId").value(1))
+                .andExpect(jsonPath("$[0].error").doesNotExist())
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].status").value(404))
+                .andExpect(jsonPath("$[1].error").value("Item with ID: 5 not found"));
+    }
+
+    @Test
+    void updateBookingStatusesShouldReturnResultPerEntry() throws Exception {
+        when(bookingService.updateBookingStatuses(List.of(3L), true, 1L)).thenReturn(List.of(
+                BatchEntry.failed(0, new NotAvailableException("Booking already considered"))));
+
+        mockMvc.perform(patch("/bookings/owner/status")
+                        .content(mapper.writeValueAsString(BookingStatusBatchDto.builder()
+                                .bookingIds(List.of(3L)).approved(true).build()))
+                        .header("X-Sharer-User-Id", 1L)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(400))
+                .andExpect(jsonPath("$[0].error").value("Booking already considered"));
+    }
+
     @Test
     void getOwnerBookingShouldReturnOkWhenValidRequest() throws Exception {
 
@@ -96,14 +155,10 @@ class BookingControllerTest {
 
     @Test
     void getUserBookingShouldReturnOkWhenValidRequestAndListSizeIsPositive() throws Exception {
-        List<Booking> bookings = new ArrayList<>();
-        bookings.add(Booking.builder()
-                .booker(User.builder()
-                        .id(1L)
-                        .name("Anastasiya")
-                        .email("anastasiya@mail.com").build())
-                .build());
-        when(bookingService.getBookerBookings(anyLong(), any(), any())).thenReturn(bookings);
+        List<BookingView> bookings = List.of(new BookingView(1L, null, null, BookingStatus.WAITING,
+                1L, "Anastasiya", "anastasiya@mail.com", 1L, "Drel", "Дрель ударная", true, null));
+        when(bookingService.getBookerBookingViews(anyLong(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(bookings));
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -111,6 +166,81 @@ class BookingControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void getUserBookingShouldReturnNextCursorWhenMoreBookingsRemain() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        BookingView booking = new BookingView(7L, start, null, BookingStatus.WAITING,
+                1L, null, null, 1L, null, null, true, null);
+        when(bookingService.getBookerBookingViews(anyLong(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(booking), PageRequest.of(0, 1), true));
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", Cursor.of(start, 7L).encode()));
+    }
+
+    @Test
+    void getOwnerBookingShouldReturnTotalCountWhenRequested() throws Exception {
+        when(bookingService.countOwnerBookings(1L, BookingState.WAITING)).thenReturn(5L);
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("state", "waiting")
+                        .param("total", "true")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "5"));
+    }
+
+    @Test
+    void getOwnerBookingShouldReturnBadRequestWhenCursorInvalid() throws Exception {
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "not a cursor")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamOwnerBookingShouldWriteOneLinePerBooking() throws Exception {
+        BookingView booking = new BookingView(1L, null, null, BookingStatus.WAITING,
+                1L, "Anastasiya", "anastasiya@mail.com", 1L, "Drel", "Дрель ударная", true, null);
+        doAnswer(invocation -> {
+            Consumer<BookingView> action = invocation.getArgument(4);
+            action.accept(booking);
+            action.accept(booking);
+            return null;
+        }).when(bookingService).streamOwnerBookingViews(eq(1L), eq(BookingState.ALL), any(), eq(500), any());
+        when(bookingMapper.toDto(booking)).thenReturn(bookingDto);
+
+        String body = mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "500")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String line = mapper.writeValueAsString(bookingDto);
+        assertThat(body).isEqualTo(line + "\n" + line + "\n");
+    }
+
+    @Test
+    void streamOwnerBookingShouldReturnNotFoundBeforeFirstLine() throws Exception {
+        doThrow(new NotFoundException("User not found")).when(bookingService)
+                .streamOwnerBookingViews(anyLong(), any(), any(), anyInt(), any());
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void getByIdShouldReturnOkWhenValidRequest() throws Exception {
         long userId = 1L;
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.SqlStatementCounter;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class BookingImportServiceTest {
+    private static final int BOOKINGS = 120;
+
+    @Autowired
+    private BookingImportService importService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void importShouldWriteBookingsInBatchesAndRebuildSummaries() {
+        User owner = userService.add(User.builder().name("Owner").email("import-owner@mail.ru").build());
+        User booker = userService.add(User.builder().name("Booker").email("import-booker@mail.ru").build());
+        Item item = itemService.add(Item.builder().name("Шуруповерт").description("аккумуляторный")
+                .available(true).build(), owner.getId());
+        LocalDateTime origin = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusDays(BOOKINGS);
+
+        SqlStatementCounter.start();
+        long imported = importService.importBookings(LongStream.range(0, BOOKINGS)
+                .mapToObj(day -> Booking.builder().status(BookingStatus.APPROVED)
+                        .item(Item.builder().id(item.getId()).build())
+                        .booker(User.builder().id(booker.getId()).build())
+                        .owner(User.builder().id(owner.getId()).build())
+                        .start(origin.plusDays(day)).end(origin.plusDays(day).plusHours(12)).build()));
+        int statements = SqlStatementCounter.stop();
+
+        assertThat(imported).isEqualTo(BOOKINGS);
+        assertThat(bookingRepository.countByOwnerAndStatus(owner, BookingStatus.APPROVED)).isEqualTo(BOOKINGS);
+        // блоки id из последовательности и одна подготовленная вставка на пакеты по 50 строк
+        // вместо 120 вставок, затем сброс календарей и пересборка сводок
+        assertThat(statements).isLessThan(12);
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertThat(summary.getLastStart()).isEqualTo(origin.plusDays(BOOKINGS - 1));
+    }
+}
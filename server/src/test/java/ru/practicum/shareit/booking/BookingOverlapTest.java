@@ -0,0 +1,127 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.BatchEntry;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.NotAvailableException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class BookingOverlapTest {
+    private static final AtomicInteger USERS = new AtomicInteger();
+    private static final int BOOKERS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+
+    private User owner;
+    private Item item;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        owner = user("Owner");
+        item = itemService.add(Item.builder().name("Палатка").description("двухместная").available(true).build(),
+                owner.getId());
+        start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    void createBookingShouldRejectOverlapWithApprovedBooking() {
+        User booker = user("Booker");
+        Booking approved = book(booker, start, start.plusDays(2));
+        bookingService.updateBookingStatus(approved.getId(), true, owner.getId());
+
+        assertThatThrownBy(() -> book(booker, start.plusDays(1), start.plusDays(3)))
+                .isInstanceOf(NotAvailableException.class);
+        assertThat(book(booker, start.plusDays(2), start.plusDays(3)).getStatus()).isEqualTo(BookingStatus.WAITING);
+    }
+
+    @Test
+    void concurrentApprovalsShouldApproveOneOfOverlappingBookings() throws Exception {
+        List<Booking> waiting = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            waiting.add(book(user("Booker"), start.plusHours(i), start.plusDays(1).plusHours(i)));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(BOOKERS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Boolean>> approvals = new ArrayList<>();
+        for (Booking booking : waiting) {
+            approvals.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingService.updateBookingStatus(booking.getId(), true, owner.getId());
+                    return true;
+                } catch (NotAvailableException e) {
+                    return false;
+                }
+            }));
+        }
+        ready.countDown();
+        int approved = 0;
+        for (Future<Boolean> approval : approvals) {
+            approved += approval.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertThat(approved).isEqualTo(1);
+        assertThat(waiting).filteredOn(booking -> bookingRepository.findById(booking.getId()).orElseThrow()
+                .getStatus() == BookingStatus.APPROVED).hasSize(1);
+    }
+
+    @Test
+    void batchApprovalShouldApproveOneOfOverlappingBookings() {
+        User booker = user("Booker");
+        List<BatchEntry<Booking>> created = bookingService.createBookings(List.of(
+                Booking.builder().item(item).start(start.plusHours(1)).end(start.plusDays(1)).build(),
+                Booking.builder().item(item).start(start).end(start.plusHours(2)).build(),
+                Booking.builder().item(item).start(start.plusDays(1)).end(start.plusDays(2)).build()),
+                booker.getId());
+        List<Long> ids = new ArrayList<>();
+        created.forEach(entry -> ids.add(entry.getValue().getId()));
+
+        List<BatchEntry<Booking>> approved = bookingService.updateBookingStatuses(ids, true, owner.getId());
+
+        assertThat(approved.get(0).getError()).isInstanceOf(NotAvailableException.class);
+        assertThat(approved.get(1).getValue().getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(approved.get(2).getValue().getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(ids).extracting(id -> bookingRepository.findById(id).orElseThrow().getStatus())
+                .containsExactly(BookingStatus.WAITING, BookingStatus.APPROVED, BookingStatus.APPROVED);
+    }
+
+    private Booking book(User booker, LocalDateTime from, LocalDateTime to) {
+        return bookingService.createBooking(Booking.builder().start(from).end(to).build(), booker.getId(),
+                item.getId());
+    }
+
+    private User user(String name) {
+        int n = USERS.incrementAndGet();
+        return userService.add(User.builder().name(name + n).email("overlap" + n + "@mail.ru").build());
+    }
+}
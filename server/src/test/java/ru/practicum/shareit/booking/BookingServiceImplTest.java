@@ -5,37 +5,44 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.BatchEntry;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ShortBookingView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.BadStateException;
 import ru.practicum.shareit.exception.NotAvailableException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.OwnedItemView;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserView;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.text.MessageFormat;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
 public class BookingServiceImplTest {
 
     private final LocalDateTime now = LocalDateTime.now();
-    private final Pageable pageable = Pageable.unpaged();
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -48,11 +55,16 @@ public class BookingServiceImplTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
+
+    @Mock
+    private ItemAvailabilityService itemAvailabilityService;
+
     private User booker;
     private User owner;
     private Item item;
     private Booking booking;
-    private List<Booking> bookings;
 
     @BeforeEach
     void setUp() {
@@ -73,16 +85,16 @@ public class BookingServiceImplTest {
         booking = Booking.builder()
                 .item(item)
                 .booker(booker)
+                .owner(owner)
                 .start(now.plusMinutes(1L))
                 .end(now.plusHours(1L)).build();
-        bookings = new ArrayList<>();
-        bookings.add(booking);
+        ReflectionTestUtils.setField(bookingService, "batchMaxSize", 3);
     }
 
     @Test
     void createBookingWithValidInputsShouldReturnsBooking() {
-        when(userRepository.findById(any())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findViewById(anyLong())).thenReturn(Optional.of(view(booker)));
+        when(itemRepository.findViewById(1L)).thenReturn(Optional.of(view(item)));
         when(bookingRepository.save(any())).thenReturn(booking.toBuilder().id(1L).build());
 
         Booking result = bookingService.createBooking(booking, 1L, 1L);
@@ -96,8 +108,8 @@ public class BookingServiceImplTest {
 
     @Test
     void createBookingWithOwnerBookItemShouldThrowsNotFoundException() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(owner));
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findViewById(2L)).thenReturn(Optional.of(view(owner)));
+        when(itemRepository.findViewById(1L)).thenReturn(Optional.of(view(item)));
 
         NotFoundException exception = assertThrows(
                 NotFoundException.class,
@@ -109,8 +121,8 @@ public class BookingServiceImplTest {
 
     @Test
     void createBookingWithNotFoundUserShouldThrowsNotFoundExceptions() {
-        when(userRepository.findById(2L)).thenReturn(Optional.empty());
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findViewById(2L)).thenReturn(Optional.empty());
+        when(itemRepository.findViewById(1L)).thenReturn(Optional.of(view(item)));
 
         NotFoundException exception = assertThrows(
                 NotFoundException.class,
@@ -122,8 +134,8 @@ public class BookingServiceImplTest {
 
     @Test
     void createBookingWithNotFoundItemShouldThrowsNotFoundExceptions() {
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userRepository.findViewById(2L)).thenReturn(Optional.of(view(booker)));
+        when(itemRepository.findViewById(1L)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(
                 NotFoundException.class,
@@ -136,8 +148,8 @@ public class BookingServiceImplTest {
     @Test
     void createBookingWithNotAvailableItemShouldThrowsNotFoundExceptions() {
         item.setAvailable(false);
-        when(userRepository.findById(2L)).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(userRepository.findViewById(2L)).thenReturn(Optional.of(view(booker)));
+        when(itemRepository.findViewById(1L)).thenReturn(Optional.of(view(item)));
 
         NotAvailableException exception = assertThrows(
                 NotAvailableException.class,
@@ -147,6 +159,30 @@ public class BookingServiceImplTest {
         assertEquals(MessageFormat.format("Item with ID: {0} not available", item.getId()), exception.getMessage());
     }
 
+    @Test
+    void createBookingWithApprovedOverlapShouldThrowNotAvailableException() {
+        when(userRepository.findViewById(anyLong())).thenReturn(Optional.of(view(booker)));
+        when(itemRepository.findViewById(1L)).thenReturn(Optional.of(view(item)));
+        when(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(item.getId(),
+                BookingStatus.APPROVED, booking.getEnd())).thenReturn(Optional.of(approvedOverlap()));
+
+        assertThrows(NotAvailableException.class, () -> bookingService.createBooking(booking, 1L, 1L));
+
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void createBookingRightAfterApprovedBookingShouldReturnsBooking() {
+        Booking before = approvedOverlap().toBuilder().start(now.minusHours(1L)).end(booking.getStart()).build();
+        when(userRepository.findViewById(anyLong())).thenReturn(Optional.of(view(booker)));
+        when(itemRepository.findViewById(1L)).thenReturn(Optional.of(view(item)));
+        when(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(item.getId(),
+                BookingStatus.APPROVED, booking.getEnd())).thenReturn(Optional.of(before));
+        when(bookingRepository.save(any())).thenReturn(booking.toBuilder().id(1L).build());
+
+        assertEquals(1L, bookingService.createBooking(booking, 1L, 1L).getId());
+    }
+
     @Test
     void updateBookingStatusWithValidInputsShouldReturnsBookingWithStatusApproved() {
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
@@ -163,6 +199,23 @@ public class BookingServiceImplTest {
         assertEquals(booking.getStart(), result.getStart());
         assertEquals(booking.getEnd(), result.getEnd());
         assertEquals(booking.getStatus(), result.getStatus());
+        verify(itemBookingSummaryService).lock(item.getId(), owner.getId());
+        verify(itemAvailabilityService).book(item.getId(), booking.getStart(), booking.getEnd());
+        verify(itemBookingSummaryService).refresh(item.getId(), owner.getId());
+    }
+
+    @Test
+    void updateBookingStatusWithApprovedOverlapShouldThrowNotAvailableException() {
+        booking.setStatus(BookingStatus.WAITING);
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findFirstByItemIdAndStatusAndStartBeforeOrderByStartDesc(item.getId(),
+                BookingStatus.APPROVED, booking.getEnd())).thenReturn(Optional.of(approvedOverlap()));
+
+        assertThrows(NotAvailableException.class, () -> bookingService.updateBookingStatus(1L, true, 2L));
+
+        verify(itemBookingSummaryService).lock(item.getId(), owner.getId());
+        verify(itemAvailabilityService, never()).book(anyLong(), any(), any());
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
@@ -181,6 +234,7 @@ public class BookingServiceImplTest {
         assertEquals(booking.getStart(), result.getStart());
         assertEquals(booking.getEnd(), result.getEnd());
         assertEquals(booking.getStatus(), result.getStatus());
+        verifyNoInteractions(itemBookingSummaryService);
     }
 
     @Test
@@ -221,6 +275,67 @@ public class BookingServiceImplTest {
         assertEquals("Booking already considered", exception.getMessage());
     }
 
+    @Test
+    void createBookingsShouldSaveValidEntriesAndReportFailedOnes() {
+        Booking missing = Booking.builder().item(Item.builder().id(5L).build())
+                .start(booking.getStart()).end(booking.getEnd()).build();
+        Booking overlapping = Booking.builder().item(Item.builder().id(1L).build())
+                .start(now.plusMinutes(10L)).end(now.plusHours(2L)).build();
+        Booking after = Booking.builder().item(Item.builder().id(1L).build())
+                .start(now.plusMinutes(30L)).end(now.plusHours(3L)).build();
+        when(userRepository.findViewById(1L)).thenReturn(Optional.of(view(booker)));
+        when(itemRepository.findAllById(any())).thenReturn(List.of(item));
+        when(bookingRepository.findViewsByItemIdInAndStatusBetween(any(), any(), any(), any())).thenReturn(List.of(
+                new ShortBookingView(9L, item.getId(), now, now.plusMinutes(30L), 3L)));
+
+        List<BatchEntry<Booking>> result = bookingService.createBookings(List.of(missing, overlapping, after), 1L);
+
+        assertInstanceOf(NotFoundException.class, result.get(0).getError());
+        assertInstanceOf(NotAvailableException.class, result.get(1).getError());
+        assertEquals(BookingStatus.WAITING, result.get(2).getValue().getStatus());
+        assertEquals(item, result.get(2).getValue().getItem());
+        assertEquals(owner, result.get(2).getValue().getOwner());
+        verify(bookingRepository).saveAll(List.of(after));
+    }
+
+    @Test
+    void updateBookingStatusesShouldApproveInOneUpdateAndRefuseOverlapsWithinBatch() {
+        Booking first = booking.toBuilder().id(1L).status(BookingStatus.WAITING).build();
+        Booking second = booking.toBuilder().id(2L).status(BookingStatus.WAITING)
+                .start(now.plusMinutes(30L)).end(now.plusHours(2L)).build();
+        when(bookingRepository.findByIdIn(List.of(2L, 1L, 7L))).thenReturn(List.of(first, second));
+
+        List<BatchEntry<Booking>> result = bookingService.updateBookingStatuses(List.of(2L, 1L, 7L), true, 2L);
+
+        assertInstanceOf(NotAvailableException.class, result.get(0).getError());
+        assertEquals(BookingStatus.APPROVED, result.get(1).getValue().getStatus());
+        assertInstanceOf(NotFoundException.class, result.get(2).getError());
+        verify(itemBookingSummaryService, times(1)).lock(item.getId(), owner.getId());
+        verify(itemAvailabilityService).book(item.getId(), first.getStart(), first.getEnd());
+        verify(bookingRepository).updateStatusByIdIn(List.of(1L), BookingStatus.APPROVED, BookingStatus.WAITING);
+        verify(itemBookingSummaryService).refresh(item.getId(), owner.getId());
+    }
+
+    @Test
+    void updateBookingStatusesShouldReportForeignAndConsideredBookings() {
+        Booking rejected = booking.toBuilder().id(1L).status(BookingStatus.REJECTED).build();
+        when(bookingRepository.findByIdIn(List.of(1L))).thenReturn(List.of(rejected));
+
+        assertInstanceOf(NotFoundException.class,
+                bookingService.updateBookingStatuses(List.of(1L), false, 1L).get(0).getError());
+        assertInstanceOf(NotAvailableException.class,
+                bookingService.updateBookingStatuses(List.of(1L), false, 2L).get(0).getError());
+        verify(bookingRepository, never()).updateStatusByIdIn(anyList(), any(), any());
+    }
+
+    @Test
+    void updateBookingStatusesOverBatchMaxSizeShouldThrowBadStateException() {
+        assertThrows(BadStateException.class,
+                () -> bookingService.updateBookingStatuses(List.of(1L, 2L, 3L, 4L), true, 2L));
+
+        verifyNoInteractions(bookingRepository);
+    }
+
     @Test
     void getBookingByIdWithUserOwnerShouldReturnsBooking() {
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
@@ -255,189 +370,17 @@ public class BookingServiceImplTest {
         assertEquals("User with id: 3 do not have available", exception.getMessage());
     }
 
-    @Test
-    void getBookerBookingsWithStateAllShouldReturnBookingList() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByBookerOrderByStartDesc(booker, pageable)).thenReturn(bookingPage);
-        when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
-
-        List<Booking> result = bookingService.getBookerBookings(booker.getId(), BookingState.ALL, pageable);
-
-        assertEquals(result.get(0), booking);
-        assertEquals(result, bookings);
-        assertEquals(result.size(), 1);
+    private Booking approvedOverlap() {
+        return Booking.builder().id(9L).item(item).booker(booker).owner(owner).status(BookingStatus.APPROVED)
+                .start(now).end(now.plusMinutes(30L)).build();
     }
 
-    @Test
-    void getBookerBookingsWithStateCurrentShouldReturnBookingList() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByBookerAndStartBeforeAndEndAfter(any(), any(), any()))
-                .thenReturn(bookingPage);
-        when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
-
-        List<Booking> result = bookingService.getBookerBookings(booker.getId(), BookingState.CURRENT, pageable);
-
-        assertEquals(result.get(0), booking);
-        assertEquals(result, bookings);
-        assertEquals(result.size(), 1);
-    }
-
-    @Test
-    void getBookerBookingsWithStatePastShouldReturnBookingList() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByBookerAndEndDateBeforeOrderByStartDesc(any(), any(), any()))
-                .thenReturn(bookingPage);
-        when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
-
-        List<Booking> result = bookingService.getBookerBookings(booker.getId(), BookingState.PAST, pageable);
-
-        assertEquals(result.get(0), booking);
-        assertEquals(result, bookings);
-        assertEquals(result.size(), 1);
+    private static UserView view(User user) {
+        return new UserView(user.getId(), user.getName(), user.getEmail());
     }
 
-    @Test
-    void getBookerBookingsWithStateFutureShouldReturnBookingList() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByBookerAndStartDateAfterOrderByStartDesc(any(), any(), any()))
-                .thenReturn(bookingPage);
-        when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
-
-        List<Booking> result = bookingService.getBookerBookings(booker.getId(), BookingState.FUTURE, pageable);
-
-        assertEquals(result.get(0), booking);
-        assertEquals(result, bookings);
-        assertEquals(result.size(), 1);
-    }
-
-    @Test
-    void getBookerBookingsWithStateWaitingShouldReturnBookingList() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByBookerAndStatus(booker, BookingStatus.WAITING, pageable)).thenReturn(bookingPage);
-        when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
-
-        List<Booking> result = bookingService.getBookerBookings(booker.getId(), BookingState.WAITING, pageable);
-
-        assertEquals(result.get(0), booking);
-        assertEquals(result, bookings);
-        assertEquals(result.size(), 1);
-    }
-
-    @Test
-    void getBookerBookingsWithStateRejectedShouldReturnBookingList() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByBookerAndStatus(booker, BookingStatus.REJECTED, pageable)).thenReturn(bookingPage);
-        when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
-
-        List<Booking> result = bookingService.getBookerBookings(booker.getId(), BookingState.REJECTED, pageable);
-
-        assertEquals(result.get(0), booking);
-        assertEquals(result, bookings);
-        assertEquals(result.size(), 1);
-    }
-
-    @Test
-    void getBookerBookingsWithStateUnsupportedShouldThrowBadStatusException() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByBookerOrderByStartDesc(booker, pageable)).thenReturn(bookingPage);
-        when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
-
-        BadStateException e = assertThrows(
-                BadStateException.class,
-                () -> bookingService.getBookerBookings(booker.getId(), BookingState.UNSUPPORTED, pageable)
-        );
-
-        assertEquals(e.getMessage(), "Unknown state");
-    }
-
-    @Test
-    void getOwnerBookingsWithStateAllShouldReturnBookingList() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByOwnerOrderByStartDesc(owner, pageable)).thenReturn(bookingPage);
-        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-
-        List<Booking> result = bookingService.getOwnerBookings(owner.getId(), BookingState.ALL, pageable);
-
-        assertEquals(result.get(0), booking);
-        assertEquals(result, bookings);
-        assertEquals(result.size(), 1);
-    }
-
-    @Test
-    void getOwnerBookingsWithStateCurrentShouldReturnBookingList() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByOwnerAndStartBeforeAndEndAfterOrder(any(), any(), any())).thenReturn(bookingPage);
-        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-
-        List<Booking> result = bookingService.getOwnerBookings(owner.getId(), BookingState.CURRENT, pageable);
-
-        assertEquals(result.get(0), booking);
-        assertEquals(result, bookings);
-        assertEquals(result.size(), 1);
-    }
-
-    @Test
-    void getOwnerBookingsWithStatePastShouldReturnBookingList() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByOwnerAndEndDateBeforeOrderByStartDesc(any(), any(), any())).thenReturn(bookingPage);
-        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-
-        List<Booking> result = bookingService.getOwnerBookings(owner.getId(), BookingState.PAST, pageable);
-
-        assertEquals(result.get(0), booking);
-        assertEquals(result, bookings);
-        assertEquals(result.size(), 1);
-    }
-
-    @Test
-    void getOwnerBookingsWithStateFutureShouldReturnBookingList() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByOwnerAndStartDateAfterOrderByStartDesc(any(), any(), any()))
-                .thenReturn(bookingPage);
-        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-
-        List<Booking> result = bookingService.getOwnerBookings(owner.getId(), BookingState.FUTURE, pageable);
-
-        assertEquals(result.get(0), booking);
-        assertEquals(result, bookings);
-        assertEquals(result.size(), 1);
-    }
-
-    @Test
-    void getOwnerBookingsWithStateWaitingShouldReturnBookingList() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByOwnerAndStatus(owner, BookingStatus.WAITING, pageable)).thenReturn(bookingPage);
-        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-
-        List<Booking> result = bookingService.getOwnerBookings(owner.getId(), BookingState.WAITING, pageable);
-
-        assertEquals(result.get(0), booking);
-        assertEquals(result, bookings);
-        assertEquals(result.size(), 1);
-    }
-
-    @Test
-    void getOwnerBookingsWithStateRejectedShouldReturnBookingList() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByOwnerAndStatus(owner, BookingStatus.REJECTED, pageable)).thenReturn(bookingPage);
-        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-
-        List<Booking> result = bookingService.getOwnerBookings(owner.getId(), BookingState.REJECTED, pageable);
-
-        assertEquals(result.get(0), booking);
-        assertEquals(result, bookings);
-        assertEquals(result.size(), 1);
-    }
-
-    @Test
-    void getOwnerBookingsWithStateUnsupportedShouldReturnBookingList() {
-        Page<Booking> bookingPage = new PageImpl<>(bookings);
-        when(bookingRepository.findByOwnerAndStatus(owner, BookingStatus.REJECTED, pageable)).thenReturn(bookingPage);
-        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-
-        BadStateException e = assertThrows(BadStateException.class,
-                () -> bookingService.getOwnerBookings(owner.getId(), BookingState.UNSUPPORTED, pageable)
-        );
-        assertEquals(e.getMessage(), "Unknown state");
+    private static OwnedItemView view(Item item) {
+        return new OwnedItemView(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getRequestId(), item.getOwner().getId());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.AvailabilityInterval;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemAvailability;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemAvailabilityRepository;
+import ru.practicum.shareit.exception.BadStateException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ItemAvailabilityServiceTest {
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    @Autowired
+    private ItemAvailabilityService availabilityService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemAvailabilityRepository availabilityRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private LocalDateTime day;
+
+    @BeforeEach
+    void setUp() {
+        owner = user("Owner");
+        booker = user("Booker");
+        item = itemService.add(Item.builder().name("Лодка").description("надувная").available(true).build(),
+                owner.getId());
+        day = LocalDate.now().plusDays(1).atStartOfDay();
+    }
+
+    @Test
+    void findShouldBuildFromBookingsAndFollowApprovals() {
+        bookingRepository.save(Booking.builder().status(BookingStatus.APPROVED).item(item).booker(booker)
+                .owner(owner).start(day.plusHours(10).plusMinutes(30)).end(day.plusHours(33)).build());
+
+        assertThat(availabilityService.find(item.getId(), owner.getId(), day, day.plusDays(2))).containsExactly(
+                new AvailabilityInterval(day, day.plusHours(10), true),
+                new AvailabilityInterval(day.plusHours(10), day.plusHours(33), false),
+                new AvailabilityInterval(day.plusHours(33), day.plusDays(2), true));
+
+        Booking booking = bookingService.createBooking(Booking.builder().start(day.plusHours(36))
+                .end(day.plusHours(37).plusMinutes(15)).build(), booker.getId(), item.getId());
+        bookingService.updateBookingStatus(booking.getId(), true, owner.getId());
+
+        assertThat(availabilityService.find(item.getId(), owner.getId(), day.plusHours(20), day.plusDays(2)))
+                .containsExactly(
+                        new AvailabilityInterval(day.plusHours(20), day.plusHours(33), false),
+                        new AvailabilityInterval(day.plusHours(33), day.plusHours(36), true),
+                        new AvailabilityInterval(day.plusHours(36), day.plusHours(38), false),
+                        new AvailabilityInterval(day.plusHours(38), day.plusDays(2), true));
+    }
+
+    @Test
+    void findOutsideHorizonShouldThrowBadStateException() {
+        assertThatThrownBy(() -> availabilityService.find(item.getId(), owner.getId(), day, day.plusDays(90)))
+                .isInstanceOf(BadStateException.class);
+        assertThatThrownBy(() -> availabilityService.find(item.getId(), owner.getId(), day.minusDays(2), day))
+                .isInstanceOf(BadStateException.class);
+        assertThatThrownBy(() -> availabilityService.find(item.getId(), owner.getId(), day, day))
+                .isInstanceOf(BadStateException.class);
+    }
+
+    @Test
+    void findShouldLeaveBuildingBitmapToRebuild() {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        bookingRepository.save(Booking.builder().status(BookingStatus.APPROVED).item(item).booker(booker)
+                .owner(owner).start(day.plusHours(1)).end(day.plusHours(2)).build());
+
+        List<AvailabilityInterval> intervals = availabilityService.find(item.getId(), owner.getId(), day,
+                day.plusDays(1));
+        availabilityService.rebuild();
+
+        ItemAvailability stored = availabilityRepository.findById(item.getId()).orElseThrow();
+        assertThat(stored.getOrigin()).isEqualTo(today);
+        assertThat(stored.intervals(day, day.plusDays(1))).isEqualTo(intervals).contains(
+                new AvailabilityInterval(day.plusHours(1), day.plusHours(2), false));
+    }
+
+    @Test
+    void findShouldNotLoseApprovalCommittedAfterBitmapWasRead() {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        availabilityRepository.save(new ItemAvailability(item.getId(), today.minusDays(1), today.plusDays(89)));
+        Booking booking = bookingService.createBooking(Booking.builder().start(day.plusHours(2))
+                .end(day.plusHours(4)).build(), booker.getId(), item.getId());
+
+        List<AvailabilityInterval> intervals = new TransactionTemplate(transactionManager).execute(status -> {
+            // устаревшая битовая карта уже прочитана, одобрение фиксируется в другом потоке между чтением и find
+            availabilityRepository.findById(item.getId()).orElseThrow();
+            CompletableFuture.runAsync(() -> bookingService.updateBookingStatus(booking.getId(), true,
+                    owner.getId())).join();
+            return availabilityService.find(item.getId(), owner.getId(), day, today.plusDays(90));
+        });
+
+        assertThat(intervals).contains(new AvailabilityInterval(day.plusHours(2), day.plusHours(4), false));
+    }
+
+    @Test
+    void rebaseShouldKeepSharedHoursAndFreeNewOnes() {
+        ItemAvailability availability = new ItemAvailability(item.getId(), day, day.plusDays(3));
+        availability.markBusy(day.plusHours(5), day.plusHours(26));
+        availability.markBusy(day.plusHours(71), day.plusDays(5));
+
+        availability.rebase(day.plusDays(1), day.plusDays(4));
+
+        assertThat(availability.intervals(day.plusDays(1), day.plusDays(4))).containsExactly(
+                new AvailabilityInterval(day.plusDays(1), day.plusHours(26), false),
+                new AvailabilityInterval(day.plusHours(26), day.plusHours(71), true),
+                new AvailabilityInterval(day.plusHours(71), day.plusDays(3), false),
+                new AvailabilityInterval(day.plusDays(3), day.plusDays(4), true));
+    }
+
+    private User user(String name) {
+        int n = USERS.incrementAndGet();
+        return userService.add(User.builder().name(name + n).email("availability" + n + "@mail.ru").build());
+    }
+}
@@ -0,0 +1,157 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.model.ExtendItem;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ItemBookingSummaryServiceTest {
+    private static final AtomicInteger USERS = new AtomicInteger();
+    private static final int APPROVALS = 4;
+
+    @Autowired
+    private ItemBookingSummaryService summaryService;
+    @Autowired
+    private ItemBookingSummaryRepository summaryRepository;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = user("Owner");
+        booker = user("Booker");
+        item = itemService.add(Item.builder().name("Дрель").description("ударная").available(true).build(),
+                owner.getId());
+    }
+
+    @Test
+    void approvalShouldUpdateSummary() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = approve(now.minusDays(2), now.minusDays(1));
+        Booking later = approve(now.plusDays(3), now.plusDays(4));
+        Booking next = approve(now.plusDays(1), now.plusDays(2));
+        book(now.minusHours(1), now.plusHours(1));
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertThat(summary.getLastBookingId()).isEqualTo(past.getId());
+        assertThat(summary.getNextBookingId()).isEqualTo(next.getId()).isNotEqualTo(later.getId());
+        assertThat(summary.getNextBookerId()).isEqualTo(booker.getId());
+
+        ExtendItem extended = itemService.getById(item.getId(), owner.getId());
+        assertThat(extended.getLastBooking().getId()).isEqualTo(past.getId());
+        assertThat(extended.getNextBooking().getId()).isEqualTo(next.getId());
+    }
+
+    @Test
+    void rollShouldMoveStartedNextBookingToLast() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        Booking started = approve(now.plusSeconds(2), now.plusDays(1));
+        Booking next = approve(now.plusDays(2), now.plusDays(3));
+        assertThat(summaryRepository.findById(item.getId()).orElseThrow().getNextBookingId())
+                .isEqualTo(started.getId());
+
+        Thread.sleep(Math.max(0, Duration.between(LocalDateTime.now(), started.getStart()).toMillis()) + 100);
+        double staleReads = meterRegistry.get("shareit.booking.summary.stale.reads").counter().count();
+        ExtendItem extended = itemService.getById(item.getId(), owner.getId());
+        assertThat(extended.getLastBooking().getId()).isEqualTo(started.getId());
+        assertThat(extended.getNextBooking().getId()).isEqualTo(next.getId());
+        assertThat(meterRegistry.get("shareit.booking.summary.stale.reads").counter().count())
+                .isEqualTo(staleReads + 1);
+
+        summaryService.roll();
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertThat(summary.getLastBookingId()).isEqualTo(started.getId());
+        assertThat(summary.getNextBookingId()).isEqualTo(next.getId());
+    }
+
+    @Test
+    void rebuildShouldPickUpBookingsWrittenPastTheService() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking written = bookingRepository.save(Booking.builder().status(BookingStatus.APPROVED).item(item)
+                .booker(booker).owner(owner).start(now.minusDays(1)).end(now.plusDays(1)).build());
+        assertThat(summaryRepository.findById(item.getId()).orElseThrow().getLastBookingId()).isNull();
+
+        summaryService.rebuild();
+
+        assertThat(summaryRepository.findById(item.getId()).orElseThrow().getLastBookingId())
+                .isEqualTo(written.getId());
+    }
+
+    @Test
+    void concurrentFirstApprovalsShouldCreateSummaryOnce() throws Exception {
+        summaryRepository.deleteById(item.getId());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Booking> waiting = new ArrayList<>();
+        for (int i = 0; i < APPROVALS; i++) {
+            waiting.add(book(start.plusDays(i), start.plusDays(i).plusHours(1)));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(APPROVALS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Booking>> approvals = new ArrayList<>();
+        for (Booking booking : waiting) {
+            approvals.add(executor.submit(() -> {
+                ready.await();
+                return bookingService.updateBookingStatus(booking.getId(), true, owner.getId());
+            }));
+        }
+        ready.countDown();
+        for (Future<Booking> approval : approvals) {
+            assertThat(approval.get().getStatus()).isEqualTo(BookingStatus.APPROVED);
+        }
+        executor.shutdown();
+
+        assertThat(summaryRepository.findById(item.getId()).orElseThrow().getNextBookingId())
+                .isEqualTo(waiting.get(0).getId());
+    }
+
+    private Booking approve(LocalDateTime start, LocalDateTime end) {
+        Booking booking = book(start, end);
+        return bookingService.updateBookingStatus(booking.getId(), true, owner.getId());
+    }
+
+    private Booking book(LocalDateTime start, LocalDateTime end) {
+        return bookingService.createBooking(Booking.builder().start(start).end(end).build(), booker.getId(),
+                item.getId());
+    }
+
+    private User user(String name) {
+        int n = USERS.incrementAndGet();
+        return userService.add(User.builder().name(name + n).email("summary" + n + "@mail.ru").build());
+    }
+}
@@ -6,16 +6,22 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.Cursor;
 import ru.practicum.shareit.TestDataInitializer;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.BookingBoundary;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @DataJpaTest
 @Import(TestDataInitializer.class)
@@ -30,140 +36,91 @@ class BookingRepositoryTest {
     private TestDataInitializer testData;
 
     @Test
-    void findByBookerOrderByStartDesc() {
-        List<Booking> result = bookingRepository.findByBookerOrderByStartDesc(testData.getDen(), pageable).toList();
-
-        assertThat(result).hasSize(3);
-        assertThat(result.get(0).getId()).isEqualTo(2L);
-        assertThat(result.get(0).getStatus()).isEqualTo(BookingStatus.REJECTED);
-        assertThat(result.get(1).getId()).isEqualTo(3L);
-        assertThat(result.get(1).getStatus()).isEqualTo(BookingStatus.APPROVED);
-        assertThat(result.get(2).getId()).isEqualTo(1L);
-        assertThat(result.get(2).getStatus()).isEqualTo(BookingStatus.APPROVED);
+    void findViewsByBookerShouldApplyStateBoundsAndCursor() {
+        LocalDateTime min = LocalDateTime.of(1970, 1, 1, 0, 0);
+        List<BookingStatus> anyStatus = List.of(BookingStatus.values());
+        long denId = testData.getDen().getId();
+
+        Slice<BookingView> all = bookingRepository.findViewsByBooker(denId, min, Cursor.MAX_START, min,
+                Cursor.MAX_START, anyStatus, Cursor.MAX_START, Long.MAX_VALUE, PageRequest.of(0, 2));
+        assertThat(all.getContent()).extracting(BookingView::getId).containsExactly(3L, 2L);
+        assertThat(all.hasNext()).isTrue();
+        assertThat(all.getContent().get(0).getBookerName()).isEqualTo(testData.getDen().getName());
+        assertThat(all.getContent().get(0).getItemName()).isEqualTo(testData.getItem2().getName());
+
+        BookingView last = all.getContent().get(1);
+        assertThat(bookingRepository.findViewsByBooker(denId, min, Cursor.MAX_START, min, Cursor.MAX_START,
+                anyStatus, last.getStart(), last.getId(), pageable).getContent())
+                .extracting(BookingView::getId).containsExactly(1L);
+
+        assertThat(bookingRepository.findViewsByBooker(denId, min, now, now, Cursor.MAX_START,
+                anyStatus, Cursor.MAX_START, Long.MAX_VALUE, pageable).getContent())
+                .extracting(BookingView::getId).containsExactly(3L, 2L);
+        assertThat(bookingRepository.findViewsByBooker(denId, min, Cursor.MAX_START, min, now,
+                anyStatus, Cursor.MAX_START, Long.MAX_VALUE, pageable).getContent())
+                .extracting(BookingView::getId).containsExactly(1L);
+        assertThat(bookingRepository.findViewsByOwner(testData.getVik().getId(), min, Cursor.MAX_START, min,
+                Cursor.MAX_START, List.of(BookingStatus.REJECTED), Cursor.MAX_START, Long.MAX_VALUE, pageable)
+                .getContent()).extracting(BookingView::getId).containsExactly(2L);
     }
 
     @Test
-    void findByBookerAndStartDateAfterOrderByStartDesc() {
-        List<Booking> result = bookingRepository
-                .findByBookerAndStartDateAfterOrderByStartDesc(testData.getVik(), now, pageable).toList();
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo(4L);
-        assertThat(result.get(0).getStatus()).isEqualTo(BookingStatus.WAITING);
-    }
-
-    @Test
-    void findByBookerAndEndDateBeforeOrderByStartDesc() {
-        List<Booking> result = bookingRepository
-                .findByBookerAndEndDateBeforeOrderByStartDesc(testData.getDen(), now, pageable).toList();
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo(1L);
-        assertThat(result.get(0).getStatus()).isEqualTo(BookingStatus.APPROVED);
-    }
-
-
-    @Test
-    void findByBookerAndStartBeforeAndEndAfter() {
-        List<Booking> result = bookingRepository
-                .findByBookerAndStartBeforeAndEndAfter(testData.getDen(), now, pageable).toList();
-
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getId()).isEqualTo(2L);
-        assertThat(result.get(0).getStatus()).isEqualTo(BookingStatus.REJECTED);
-        assertThat(result.get(1).getId()).isEqualTo(3L);
-        assertThat(result.get(1).getStatus()).isEqualTo(BookingStatus.APPROVED);
-    }
-
-    @Test
-    void findByBookerAndStatus() {
-        List<Booking> result = bookingRepository
-                .findByBookerAndStatus(testData.getDen(), BookingStatus.APPROVED, pageable).toList();
-
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getId()).isEqualTo(3L);
-        assertThat(result.get(0).getStatus()).isEqualTo(BookingStatus.APPROVED);
-        assertThat(result.get(1).getId()).isEqualTo(1L);
-        assertThat(result.get(1).getStatus()).isEqualTo(BookingStatus.APPROVED);
-    }
-
-    @Test
-    void findByOwnerOrderByStartDesc() {
-        List<Booking> result = bookingRepository.findByOwnerOrderByStartDesc(testData.getVik(), pageable).toList();
-
-        assertThat(result).hasSize(3);
-        assertThat(result.get(0).getId()).isEqualTo(2L);
-        assertThat(result.get(0).getStatus()).isEqualTo(BookingStatus.REJECTED);
-        assertThat(result.get(1).getId()).isEqualTo(3L);
-        assertThat(result.get(1).getStatus()).isEqualTo(BookingStatus.APPROVED);
-        assertThat(result.get(2).getId()).isEqualTo(1L);
-        assertThat(result.get(2).getStatus()).isEqualTo(BookingStatus.APPROVED);
-    }
-
-    @Test
-    void findByOwnerAndStartDateAfterOrderByStartDesc() {
-        List<Booking> result = bookingRepository
-                .findByOwnerAndStartDateAfterOrderByStartDesc(testData.getDen(), now, pageable).toList();
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo(4L);
-        assertThat(result.get(0).getStatus()).isEqualTo(BookingStatus.WAITING);
+    void streamViewsByOwnerShouldReadTheSameRowsAsThePage() {
+        long vikId = testData.getVik().getId();
+        LocalDateTime min = LocalDateTime.of(1970, 1, 1, 0, 0);
+        List<BookingStatus> anyStatus = List.of(BookingStatus.values());
+
+        try (Stream<BookingView> bookings = bookingRepository.streamViewsByOwner(vikId, min, Cursor.MAX_START, min,
+                Cursor.MAX_START, anyStatus, Cursor.MAX_START, Long.MAX_VALUE, PageRequest.of(0, 2))) {
+            assertThat(bookings.map(BookingView::getId)).containsExactly(3L, 2L);
+        }
     }
 
     @Test
-    void findByOwnerAndEndDateBeforeOrderByStartDesc() {
-        List<Booking> result = bookingRepository
-                .findByOwnerAndEndDateBeforeOrderByStartDesc(testData.getVik(), now, pageable).toList();
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo(1L);
-        assertThat(result.get(0).getStatus()).isEqualTo(BookingStatus.APPROVED);
+    void findApprovedBoundariesShouldReturnLastAndNextBookingPerItem() {
+        long vik = testData.getVik().getId();
+        long from = testData.getItem1().getId();
+        long to = testData.getItem3().getId();
+
+        assertThat(bookingRepository.findApprovedBoundaries(vik, from, to, now))
+                .extracting(BookingBoundary::getId, BookingBoundary::isLast)
+                .containsExactlyInAnyOrder(tuple(1L, true), tuple(3L, true));
+        assertThat(bookingRepository.findApprovedBoundaries(vik, from, to, now.minusHours(2L)))
+                .extracting(BookingBoundary::getId, BookingBoundary::getItemId, BookingBoundary::isLast)
+                .containsExactlyInAnyOrder(tuple(1L, testData.getItem1().getId(), true),
+                        tuple(3L, testData.getItem2().getId(), false));
     }
 
     @Test
-    void findByOwnerAndStartBeforeAndEndAfterOrder() {
-        List<Booking> result = bookingRepository
-                .findByOwnerAndStartBeforeAndEndAfterOrder(testData.getVik(), now, pageable).toList();
-
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getId()).isEqualTo(2L);
-        assertThat(result.get(0).getStatus()).isEqualTo(BookingStatus.REJECTED);
-        assertThat(result.get(1).getId()).isEqualTo(3L);
-        assertThat(result.get(1).getStatus()).isEqualTo(BookingStatus.APPROVED);
+    void findApprovedBoundariesShouldPickClosestBookingOnEachSide() {
+        Booking later = bookingRepository.save(Booking.builder().status(BookingStatus.APPROVED)
+                .booker(testData.getDen()).item(testData.getItem1()).owner(testData.getVik())
+                .start(now.plusHours(6L)).end(now.plusHours(7L)).build());
+        Booking next = bookingRepository.save(Booking.builder().status(BookingStatus.APPROVED)
+                .booker(testData.getDen()).item(testData.getItem1()).owner(testData.getVik())
+                .start(now.plusHours(5L)).end(now.plusHours(6L)).build());
+
+        long itemId = testData.getItem1().getId();
+        List<BookingBoundary> result = bookingRepository
+                .findApprovedBoundaries(testData.getVik().getId(), itemId, itemId, now);
+
+        assertThat(result).extracting(BookingBoundary::getId, BookingBoundary::isLast)
+                .containsExactlyInAnyOrder(tuple(1L, true), tuple(next.getId(), false))
+                .doesNotContain(tuple(later.getId(), false));
+        assertThat(result).filteredOn(BookingBoundary::isLast).first()
+                .extracting(BookingBoundary::getItemId, BookingBoundary::getBookerId)
+                .containsExactly(testData.getItem1().getId(), testData.getDen().getId());
     }
 
     @Test
-    void findByOwnerAndStatus() {
-        List<Booking> result = bookingRepository
-                .findByOwnerAndStatus(testData.getVik(), BookingStatus.APPROVED, pageable).toList();
-
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getId()).isEqualTo(3L);
-        assertThat(result.get(0).getStatus()).isEqualTo(BookingStatus.APPROVED);
-        assertThat(result.get(1).getId()).isEqualTo(1L);
-        assertThat(result.get(1).getStatus()).isEqualTo(BookingStatus.APPROVED);
+    void countByBookerAndOwner() {
+        assertThat(bookingRepository.countByBooker(testData.getDen())).isEqualTo(3);
+        assertThat(bookingRepository.countByBookerAndStartLessThanEqualAndEndGreaterThanEqual(testData.getDen(),
+                now, now)).isEqualTo(2);
+        assertThat(bookingRepository.countByOwnerAndStatus(testData.getVik(), BookingStatus.APPROVED)).isEqualTo(2);
+        assertThat(bookingRepository.countByOwnerAndStartAfter(testData.getDen(), now)).isEqualTo(1);
     }
 
-    @Test
-    void findFirstByItemAndStartAfterAndStatusNotOrderByStart() {
-        Optional<Booking> result = bookingRepository
-                .findFirstByItemAndStartAfterAndStatusOrderByStart(testData.getItem2(), now.minusHours(2L),
-                        BookingStatus.APPROVED);
-
-        assertThat(result).isNotEmpty();
-        assertThat(result.get().getId()).isEqualTo(3L);
-        assertThat(result.get().getStatus()).isEqualTo(BookingStatus.APPROVED);
-    }
-
-    @Test
-    void findFirstByItemAndStartBeforeAndStatusNotOrderByStartDesc() {
-        Optional<Booking> result = bookingRepository
-                .findFirstByItemAndStartLessThanEqualAndStatusOrderByStartDesc(testData.getItem1(), now, BookingStatus.APPROVED);
-
-        assertThat(result).isNotEmpty();
-        assertThat(result.get().getId()).isEqualTo(1L);
-        assertThat(result.get().getStatus()).isEqualTo(BookingStatus.APPROVED);
-    }
 
     @Test
     void findFirstByItemAndBookerAndStartBeforeAndStatusOrderByStartDesc() {
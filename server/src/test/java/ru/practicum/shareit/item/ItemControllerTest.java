@@ -6,16 +6,39 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.Cursor;
+import ru.practicum.shareit.Variables;
+import ru.practicum.shareit.booking.model.AvailabilityInterval;
+import ru.practicum.shareit.item.dto.AvailabilityDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.OwnerItemDto;
+import ru.practicum.shareit.item.model.CommentView;
+import ru.practicum.shareit.item.model.FreeWindow;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.item.model.OwnerItemView;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemController.class)
@@ -72,6 +95,7 @@ class ItemControllerTest {
 
     @Test
     void getAllShouldReturnOkWhenValidRequest() throws Exception {
+        when(itemService.getOwnerItemViews(anyLong(), any(), any())).thenReturn(new SliceImpl<>(List.of()));
         mockMvc.perform(get("/items/")
                         .header("X-Sharer-User-Id", 1L)
                         .characterEncoding(StandardCharsets.UTF_8)
@@ -79,6 +103,26 @@ class ItemControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void streamAllShouldWriteOneLinePerItem() throws Exception {
+        OwnerItemView item = OwnerItemView.of(new ItemView(1L, "Drel", "Дрель ударная", true, null), null, null,
+                List.of());
+        OwnerItemDto dto = OwnerItemDto.builder().id(1L).name("Drel").build();
+        doAnswer(invocation -> {
+            Consumer<OwnerItemView> action = invocation.getArgument(3);
+            action.accept(item);
+            return null;
+        }).when(itemService).streamOwnerItemViews(eq(1L), any(), eq(20), any());
+        when(itemMapper.toDtoOwner(item)).thenReturn(dto);
+
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(mapper.writeValueAsString(dto) + "\n"));
+    }
+
     @Test
     void getByIdShouldReturnOkWhenValidRequest() throws Exception {
         long userId = 1L;
@@ -99,6 +143,34 @@ class ItemControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void searchItemsShouldPassWindowToService() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 4, 10, 0);
+        LocalDateTime end = LocalDateTime.of(2030, 1, 6, 18, 0);
+
+        mockMvc.perform(get("/items/search")
+                        .param("text", "Drel")
+                        .param("start", "2030-01-04T10:00:00")
+                        .param("end", "2030-01-06T18:00:00")
+                        .param("waiting", "true")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(itemService).searchItems(eq("drel"), eq(false), eq(FreeWindow.of(start, end, true)), any());
+    }
+
+    @Test
+    void searchItemsShouldReturnBadRequestWhenWindowIsEmpty() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .param("text", "Drel")
+                        .param("start", "2030-01-04T10:00:00")
+                        .param("end", "2030-01-04T10:00:00")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void searchItemsShouldReturnOkWhenTextIsBlank() throws Exception {
         mockMvc.perform(get("/items/search")
@@ -108,6 +180,40 @@ class ItemControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void getCommentsShouldReturnNextCursorWhenMoreCommentsExist() throws Exception {
+        LocalDateTime created = LocalDateTime.of(2023, 3, 1, 12, 0);
+        CommentView comment = new CommentView(7L, 1L, "fine", "Den", created);
+        when(itemService.getComments(eq(1L), any(), eq(1)))
+                .thenReturn(new SliceImpl<>(List.of(comment), PageRequest.of(0, 1), true));
+
+        mockMvc.perform(get("/items/{0}/comments", 1L)
+                        .param("size", "1")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(Variables.NEXT_CURSOR, Cursor.of(created, 7L).encode()));
+    }
+
+    @Test
+    void getAvailabilityShouldPassParsedWindow() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 1, 2, 12, 0);
+        AvailabilityInterval interval = new AvailabilityInterval(from, to, true);
+        when(itemService.getAvailability(1L, from, to)).thenReturn(List.of(interval));
+        when(itemMapper.toAvailabilityDto(interval))
+                .thenReturn(AvailabilityDto.builder().start(from).end(to).free(true).build());
+
+        mockMvc.perform(get("/items/{0}/availability", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-02T12:00:00")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"start\":\"2030-01-01T00:00:00\",\"end\":\"2030-01-02T12:00:00\"," +
+                        "\"free\":true}]"));
+    }
+
     @Test
     void saveCommentShouldReturnOkWhenValidRequest() throws Exception {
         long userId = 1L;
@@ -5,25 +5,42 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.Cursor;
+import ru.practicum.shareit.booking.ItemAvailabilityService;
+import ru.practicum.shareit.booking.ItemBookingSummaryService;
+import ru.practicum.shareit.booking.model.AvailabilityInterval;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.ShortBookingView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.BadStateException;
 import ru.practicum.shareit.exception.NotAvailableException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentView;
 import ru.practicum.shareit.item.model.ExtendItem;
+import ru.practicum.shareit.item.model.FreeWindow;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.item.model.LatestComment;
+import ru.practicum.shareit.item.model.OwnedItemView;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserView;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.text.MessageFormat;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -31,7 +48,13 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -51,13 +74,19 @@ public class ItemServiceImplTest {
     private CommentRepository commentRepository;
     @Mock
     private BookingRepository bookingRepository;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemBookingSummaryService itemBookingSummaryService;
+    @Mock
+    private ItemAvailabilityService itemAvailabilityService;
 
     private User booker;
     private User owner;
     private Item item;
     private List<Item> items;
     private Comment comment;
-    private List<Comment> comments;
+    private List<CommentView> comments;
 
     @BeforeEach
     void setUp() {
@@ -79,13 +108,13 @@ public class ItemServiceImplTest {
         items.add(item);
 
         comment = Comment.builder().id(1L).author(booker).text("cool").item(item).build();
-        comments = new ArrayList<>();
-        comments.add(comment);
+        comments = List.of(new CommentView(comment.getId(), item.getId(), comment.getText(), booker.getName(),
+                comment.getCreated()));
     }
 
     @Test
     void createItemWithValidInputsShouldReturnsItem() {
-        when(userRepository.findById(any())).thenReturn(Optional.of(owner));
+        when(userRepository.findViewById(anyLong())).thenReturn(Optional.of(view(owner)));
         when(itemRepository.save(any()))
                 .thenReturn(item.toBuilder()
                         .id(1L)
@@ -99,11 +128,12 @@ public class ItemServiceImplTest {
         assertEquals(result.getId(), item.getId());
         assertEquals(result.getName(), item.getName());
         assertEquals(result.getDescription(), item.getDescription());
+        verify(itemBookingSummaryService).create(1L, owner.getId());
     }
 
     @Test
     void createItemWithNonExistingUserShouldThrowsNotFoundException() {
-        when(userRepository.findById(3L)).thenReturn(Optional.empty());
+        when(userRepository.findViewById(3L)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(
                 NotFoundException.class,
@@ -214,8 +244,8 @@ public class ItemServiceImplTest {
 
     @Test
     void getItemByIdWithValidInputsShouldReturnsItem() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(commentRepository.findByItemId(item.getId())).thenReturn(comments);
+        when(itemRepository.findViewById(anyLong())).thenReturn(Optional.of(view(item)));
+        stubLatestComments();
 
         ExtendItem result = itemService.getById(1L, 1L);
 
@@ -227,12 +257,9 @@ public class ItemServiceImplTest {
 
     @Test
     void getItemByIdWithValidInputsShouldReturnsItemWithBookings() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(commentRepository.findByItemId(item.getId())).thenReturn(comments);
-        when(bookingRepository.findFirstByItemAndStartAfterAndStatusOrderByStart(any(), any(), any()))
-                .thenReturn(Optional.of(Booking.builder().id(1L).build()));
-        when(bookingRepository.findFirstByItemAndStartLessThanEqualAndStatusOrderByStartDesc(any(), any(), any()))
-                .thenReturn(Optional.of(Booking.builder().id(2L).build()));
+        when(itemRepository.findViewById(anyLong())).thenReturn(Optional.of(view(item)));
+        stubLatestComments();
+        when(itemBookingSummaryService.find(2L, item.getId(), item.getId())).thenReturn(bookings(1L, 2L));
 
         ExtendItem result = itemService.getById(1L, 2L);
 
@@ -245,48 +272,115 @@ public class ItemServiceImplTest {
     }
 
     @Test
-    void getAllByUserIdWithValidInputsShouldReturnsItemsWithBookings() {
-        List<Booking> nextBookings = new ArrayList<>();
-        nextBookings.add(Booking.builder().id(1L).item(item).build());
-        List<Booking> lastBookings = new ArrayList<>();
-        lastBookings.add(Booking.builder().id(2L).item(item).build());
-        Page<Item> itemsPage = new PageImpl<>(items);
-        when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-        when(itemRepository.findAllByOwnerOrderByIdAsc(any(), any())).thenReturn(itemsPage);
-        when(commentRepository.findByItemIn(any(), any())).thenReturn(comments);
-        when(bookingRepository.findFirstByItemInAndStartLessThanEqualAndStatusOrderByStartDesc(any(), any(), any()))
-                .thenReturn(lastBookings);
-        when(bookingRepository.findFirstByItemInAndStartAfterAndStatusOrderByStart(any(), any(), any()))
-                .thenReturn(nextBookings);
-
-        List<ExtendItem> result = itemService.getAllByUserId(2L, pageable);
+    void getAvailabilityShouldAskForItemOfOwner() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        List<AvailabilityInterval> intervals = List.of(new AvailabilityInterval(from, from.plusDays(1), true));
+        when(itemRepository.findViewById(item.getId())).thenReturn(Optional.of(view(item)));
+        when(itemAvailabilityService.find(item.getId(), owner.getId(), from, from.plusDays(1))).thenReturn(intervals);
+
+        assertEquals(intervals, itemService.getAvailability(item.getId(), from, from.plusDays(1)));
+    }
+
+    @Test
+    void getAvailabilityOfUnknownItemShouldThrowNotFoundException() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        when(itemRepository.findViewById(anyLong())).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> itemService.getAvailability(99L, from, from.plusDays(1)));
+        verify(itemAvailabilityService, never()).find(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void getCommentsShouldStartBeforeNewestComment() {
+        when(itemRepository.findViewById(item.getId())).thenReturn(Optional.of(view(item)));
+        when(commentRepository.findViewsByItemIdSeek(eq(item.getId()), eq(Cursor.MAX_START), eq(Long.MAX_VALUE),
+                any())).thenReturn(new SliceImpl<>(comments));
+
+        Slice<CommentView> result = itemService.getComments(item.getId(), null, 10);
+
+        assertEquals(comments, result.getContent());
+    }
+
+    @Test
+    void getCommentsWithIdCursorShouldThrowsBadStateException() {
+        when(itemRepository.findViewById(item.getId())).thenReturn(Optional.of(view(item)));
+
+        assertThrows(BadStateException.class, () -> itemService.getComments(item.getId(), Cursor.of(5L), 10));
+    }
+
+    @Test
+    void streamOwnerItemViewsShouldReadInChunksUpToSize() {
+        ReflectionTestUtils.setField(itemService, "streamChunkSize", 2);
+        when(userRepository.findViewById(owner.getId())).thenReturn(Optional.of(view(owner)));
+        when(itemRepository.findViewsByOwnerId(owner.getId(), 0, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(itemView(1L), itemView(2L)), PageRequest.of(0, 2), true));
+        when(itemRepository.findViewsByOwnerId(owner.getId(), 2L, PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(itemView(3L)), PageRequest.of(0, 1), true));
+        when(itemBookingSummaryService.find(anyLong(), anyLong(), anyLong()))
+                .thenReturn(Map.of(true, Map.of(), false, Map.of()));
+        List<Long> streamed = new ArrayList<>();
+
+        itemService.streamOwnerItemViews(owner.getId(), null, 3, item -> streamed.add(item.getId()));
+
+        assertEquals(List.of(1L, 2L, 3L), streamed);
+        verify(itemRepository, never()).findViewsByOwnerId(eq(owner.getId()), eq(3L), any());
+    }
+
+    @Test
+    void searchItemsShouldReturnsItems() {
+        Slice<Item> itemsSlice = new SliceImpl<>(items);
+        when(itemRepository.findLikingByNameOrDescription(any(), any())).thenReturn(itemsSlice);
+
+        List<Item> result = itemService.searchItems("hot", false, null, pageable);
 
         assertEquals(result.get(0).getId(), item.getId());
         assertEquals(result.get(0).getName(), item.getName());
         assertEquals(result.get(0).getDescription(), item.getDescription());
-        assertEquals(result.get(0).getComments(), comments);
-        assertEquals(result.get(0).getNextBooking().getId(), 1L);
-        assertEquals(result.get(0).getLastBooking().getId(), 2L);
     }
 
     @Test
-    void searchItemsShouldReturnsItems() {
-        Page<Item> itemsPage = new PageImpl<>(items);
-        when(itemRepository.findLikingByNameOrDescription(any(), any())).thenReturn(itemsPage);
-        when(commentRepository.findByItemId(item.getId())).thenReturn(comments);
+    void searchItemsShouldUseIndexWhenReady() {
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemSearchIndex.search("hot", false, pageable)).thenReturn(List.of(1L));
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(items);
+
+        List<Item> result = itemService.searchItems("hot", false, null, pageable);
+
+        assertEquals(1, result.size());
+        assertEquals(item.getId(), result.get(0).getId());
+        verify(itemRepository, never()).findLikingByNameOrDescription(any(), any());
+    }
+
+    @Test
+    void searchItemsInWindowShouldBypassIndex() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        FreeWindow free = FreeWindow.of(start, start.plusDays(2), false);
+        when(itemSearchIndex.isReady()).thenReturn(true);
+        when(itemRepository.findFreeLikingByNameOrDescription("hot", false, start, start.plusDays(2),
+                pageable)).thenReturn(new SliceImpl<>(items));
+
+        List<Item> result = itemService.searchItems("hot", false, free, pageable);
+
+        assertEquals(items, result);
+        verify(itemSearchIndex, never()).search(any(), anyBoolean(), any());
+    }
+
+    @Test
+    void searchItemsRankedShouldReturnsItems() {
+        Slice<Item> itemsSlice = new SliceImpl<>(items);
+        when(itemRepository.findRankedByNameOrDescription(any(), any())).thenReturn(itemsSlice);
 
-        List<Item> result = itemService.searchItems("hot", pageable);
+        List<Item> result = itemService.searchItems("hot", true, null, pageable);
 
         assertEquals(result.get(0).getId(), item.getId());
         assertEquals(result.get(0).getName(), item.getName());
-        assertEquals(result.get(0).getDescription(), item.getDescription());
     }
 
     @Test
     void createCommentWithValidInputsShouldReturnsItem() {
-        when(userRepository.findById(any())).thenReturn(Optional.of(owner));
-        when(itemRepository.findById(any()))
-                .thenReturn(Optional.of(item));
+        when(userRepository.findViewById(anyLong())).thenReturn(Optional.of(view(owner)));
+        when(itemRepository.findViewById(anyLong()))
+                .thenReturn(Optional.of(view(item)));
         when(bookingRepository.findFirstByItemAndBookerAndStartBeforeAndStatusOrderByStartDesc(any(), any(), any(), any()))
                 .thenReturn(Optional.of(Booking.builder().build()));
         when(commentRepository.save(any())).thenAnswer(invocation -> {
@@ -305,9 +399,9 @@ public class ItemServiceImplTest {
     void createCommentWithNonExistingUserShouldThrowsNotFoundException() {
         when(bookingRepository.findFirstByItemAndBookerAndStartBeforeAndStatusOrderByStartDesc(any(), any(), any(), any()))
                 .thenReturn(Optional.empty());
-        when(userRepository.findById(any())).thenReturn(Optional.of(owner));
-        when(itemRepository.findById(any()))
-                .thenReturn(Optional.of(item));
+        when(userRepository.findViewById(anyLong())).thenReturn(Optional.of(view(owner)));
+        when(itemRepository.findViewById(anyLong()))
+                .thenReturn(Optional.of(view(item)));
 
         NotAvailableException exception = assertThrows(
                 NotAvailableException.class,
@@ -318,4 +412,28 @@ public class ItemServiceImplTest {
                 MessageFormat.format("Booking is not available for user id: {0} and item id: {1}",
                         item.getId(), owner.getId()));
     }
-}
\ No newline at end of file
+
+    private static ItemView itemView(long id) {
+        return new ItemView(id, "Grill " + id, "Hot grill", true, null);
+    }
+
+    private void stubLatestComments() {
+        LatestComment latest = mock(LatestComment.class);
+        when(latest.toView()).thenReturn(comments.get(0));
+        when(commentRepository.findLatestByItemIdIn(eq(List.of(item.getId())), anyInt())).thenReturn(List.of(latest));
+    }
+
+    private Map<Boolean, Map<Long, ShortBookingView>> bookings(long nextId, long lastId) {
+        return Map.of(true, Map.of(item.getId(), new ShortBookingView(lastId, item.getId(), null, null, 1L)),
+                false, Map.of(item.getId(), new ShortBookingView(nextId, item.getId(), null, null, 1L)));
+    }
+
+    private static UserView view(User user) {
+        return new UserView(user.getId(), user.getName(), user.getEmail());
+    }
+
+    private static OwnedItemView view(Item item) {
+        return new OwnedItemView(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getRequestId(), item.getOwner().getId());
+    }
+}
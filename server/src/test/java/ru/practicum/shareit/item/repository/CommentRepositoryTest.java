@@ -4,9 +4,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.Cursor;
 import ru.practicum.shareit.TestDataInitializer;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.LatestComment;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -22,10 +29,56 @@ class CommentRepositoryTest {
     private TestDataInitializer testData;
 
     @Test
-    void findByItemId() {
-        List<Comment> result = commentRepository.findByItemId(3L);
+    void findLatestByItemIdIn() {
+        List<LatestComment> result = commentRepository.findLatestByItemIdIn(List.of(3L), 10);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getText()).contains("fine");
+        assertThat(result.get(0).getAuthorName()).isEqualTo(testData.getVik().getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findLatestByItemIdInShouldLimitEveryItem() {
+        LocalDateTime now = LocalDateTime.now();
+        Item item1 = testData.getItem1();
+        Item item2 = testData.getItem2();
+        Comment oldest = comment(item1, now.minusDays(3));
+        Comment middle = comment(item1, now.minusDays(2));
+        Comment newest = comment(item1, now.minusDays(1));
+        Comment other = comment(item2, now.minusDays(5));
+
+        List<LatestComment> result = commentRepository.findLatestByItemIdIn(List.of(item1.getId(), item2.getId()),
+                2);
+
+        assertThat(result).extracting(LatestComment::getId)
+                .containsExactly(newest.getId(), middle.getId(), other.getId())
+                .doesNotContain(oldest.getId());
+    }
+
+    @Test
+    void findViewsByItemIdSeekShouldContinueAfterCursor() {
+        LocalDateTime now = LocalDateTime.now();
+        Item item = testData.getItem1();
+        Comment first = comment(item, now.minusDays(1));
+        Comment second = comment(item, now.minusDays(2));
+        Comment third = comment(item, now.minusDays(3));
+
+        Slice<CommentView> page = commentRepository.findViewsByItemIdSeek(item.getId(), Cursor.MAX_START,
+                Long.MAX_VALUE, PageRequest.of(0, 2));
+
+        assertThat(page.getContent()).extracting(CommentView::getId).containsExactly(first.getId(), second.getId());
+        assertThat(page.hasNext()).isTrue();
+
+        CommentView last = page.getContent().get(1);
+        Slice<CommentView> next = commentRepository.findViewsByItemIdSeek(item.getId(), last.getCreated(),
+                last.getId(), PageRequest.of(0, 2));
+
+        assertThat(next.getContent()).extracting(CommentView::getId).containsExactly(third.getId());
+        assertThat(next.hasNext()).isFalse();
+    }
+
+    private Comment comment(Item item, LocalDateTime created) {
+        return commentRepository.save(Comment.builder().text("comment").author(testData.getDen()).item(item)
+                .created(created).build());
+    }
+}
@@ -6,9 +6,11 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.TestDataInitializer;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -18,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 @Import(TestDataInitializer.class)
 class ItemRepositoryTest {
 
+
     private final Pageable pageable = PageRequest.of(0, 10);
 
     @Autowired
@@ -25,23 +28,34 @@ class ItemRepositoryTest {
     @Autowired
     private TestDataInitializer testData;
 
+
     @Test
-    void findAllByOwnerOrderByIdAsc() {
-        List<Item> result = itemRepository.findAllByOwnerOrderByIdAsc(testData.getVik(), pageable).toList();
+    void findLikingByNameOrDescription() {
+        List<Item> result = itemRepository.findLikingByNameOrDescription("Аккумулятор", pageable).toList();
 
         assertThat(result).hasSize(2);
         assertThat(result.get(0).getName()).contains("дрель");
         assertThat(result.get(1).getName()).contains("отвертка");
     }
 
-
     @Test
-    void findLikingByNameOrDescription() {
-        List<Item> result = itemRepository.findLikingByNameOrDescription("Аккумулятор", pageable).toList();
+    void findLikingByNameOrDescriptionSeekShouldContinueAfterId() {
+        Slice<Item> first = itemRepository.findLikingByNameOrDescriptionSeek("аккумулятор", 0, PageRequest.of(0, 1));
 
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getName()).contains("дрель");
-        assertThat(result.get(1).getName()).contains("отвертка");
+        assertThat(first.getContent()).extracting(Item::getName).containsExactly("аккумуляторная дрель");
+        assertThat(first.hasNext()).isTrue();
+
+        Slice<Item> second = itemRepository.findLikingByNameOrDescriptionSeek("аккумулятор",
+                first.getContent().get(0).getId(), PageRequest.of(0, 1));
+
+        assertThat(second.getContent()).extracting(Item::getName).containsExactly("электрическая отвертка");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void countLikingByNameOrDescription() {
+        assertThat(itemRepository.countLikingByNameOrDescription("аккумулятор")).isEqualTo(2);
+        assertThat(itemRepository.countByOwner(testData.getVik())).isEqualTo(2);
     }
 
     @Test
@@ -54,6 +68,69 @@ class ItemRepositoryTest {
         assertThat(result.get(0).getName()).contains("отвертка");
     }
 
+    @Test
+    void findRankedByNameOrDescriptionShouldPutNameMatchesFirst() {
+        List<Item> result = itemRepository.findRankedByNameOrDescription("аккумулятор", pageable).toList();
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getName()).contains("дрель");
+        assertThat(result.get(1).getName()).contains("отвертка");
+    }
+
+    @Test
+    void findRankedByNameOrDescriptionShouldPutNamePrefixFirst() {
+        itemRepository.save(Item.builder()
+                .owner(testData.getDen())
+                .name("Дрель-шуруповерт")
+                .description("компактная")
+                .available(true).build());
+        List<Item> result = itemRepository.findRankedByNameOrDescription("дрель", pageable).toList();
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getName()).contains("шуруповерт");
+        assertThat(result.get(1).getName()).contains("аккумуляторная");
+    }
+
+    @Test
+    void findFreeLikingByNameOrDescriptionShouldSkipItemsWithOverlappingApprovedBookings() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Item> busy = itemRepository.findFreeLikingByNameOrDescription("аккумулятор", false,
+                now.minusMinutes(30), now.plusMinutes(30), pageable).toList();
+        List<Item> free = itemRepository.findFreeLikingByNameOrDescription("аккумулятор", false,
+                now.plusHours(2), now.plusHours(4), pageable).toList();
+
+        assertThat(busy).extracting(Item::getId).containsExactly(testData.getItem1().getId());
+        assertThat(free).extracting(Item::getId)
+                .containsExactlyInAnyOrder(testData.getItem1().getId(), testData.getItem2().getId());
+        assertThat(itemRepository.countFreeLikingByNameOrDescription("аккумулятор", false,
+                now.minusMinutes(30), now.plusMinutes(30))).isEqualTo(1);
+    }
+
+    @Test
+    void findFreeLikingByNameOrDescriptionShouldSkipWaitingBookingsOnlyWhenAsked() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(itemRepository.findFreeLikingByNameOrDescription("siphon", false,
+                now.plusMinutes(150), now.plusHours(5), pageable)).hasSize(1);
+        assertThat(itemRepository.findFreeLikingByNameOrDescription("siphon", true,
+                now.plusMinutes(150), now.plusHours(5), pageable)).isEmpty();
+    }
+
+    @Test
+    void findFreeLikingByNameOrDescriptionSeekShouldFillPageWithFreeItems() {
+        LocalDateTime now = LocalDateTime.now();
+
+        Slice<Item> page = itemRepository.findFreeLikingByNameOrDescriptionSeek("аккумулятор", false,
+                now.minusMinutes(30), now.plusMinutes(30), 0, PageRequest.of(0, 1));
+        List<Item> ranked = itemRepository.findFreeRankedByNameOrDescription("аккумулятор", false,
+                now.minusMinutes(30), now.plusMinutes(30), pageable).toList();
+
+        assertThat(page.getContent()).extracting(Item::getId).containsExactly(testData.getItem1().getId());
+        assertThat(page.hasNext()).isFalse();
+        assertThat(ranked).extracting(Item::getId).containsExactly(testData.getItem1().getId());
+    }
+
     @Test
     void findAllByRequestOrderByIdAsc() {
         List<Item> result = itemRepository.findAllByRequestOrderByIdAsc(3L);
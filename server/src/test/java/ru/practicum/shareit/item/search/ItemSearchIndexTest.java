@@ -0,0 +1,91 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTest {
+
+    private final Pageable pageable = PageRequest.of(0, 10);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ItemRepository itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(List.of(
+                item(1L, "Аккумуляторная дрель", "имеет ударный режим", true),
+                item(2L, "Электрическая отвертка", "аккумулятор держит заряд 20 часов", true)));
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any())).thenReturn(List.of(
+                item(3L, "Дрель-шуруповерт", "компактная", true),
+                item(4L, "Старая дрель", "без аккумулятора", false)));
+        index = new ItemSearchIndex(itemRepository, meterRegistry, true, 2);
+        index.rebuild();
+    }
+
+    @Test
+    void searchShouldMatchSubstringInNameOrDescription() {
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("аккумулятор", false, pageable)).containsExactly(1L, 2L);
+        assertThat(index.search("дрель", false, pageable)).containsExactly(1L, 3L);
+        assertThat(index.search("часов", false, pageable)).containsExactly(2L);
+    }
+
+    @Test
+    void searchShouldNotMatchScatteredTrigrams() {
+        assertThat(index.search("дрельдрель", false, pageable)).isEmpty();
+    }
+
+    @Test
+    void searchShouldHandleShortText() {
+        assertThat(index.search("20", false, pageable)).containsExactly(2L);
+    }
+
+    @Test
+    void searchShouldRankNamePrefixFirst() {
+        assertThat(index.search("дрель", true, pageable)).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void searchShouldPage() {
+        assertThat(index.search("р", false, PageRequest.of(1, 1))).containsExactly(2L);
+    }
+
+    @Test
+    void searchAfterShouldContinueFromId() {
+        assertThat(index.searchAfter("р", 0, 2)).containsExactly(1L, 2L);
+        assertThat(index.searchAfter("р", 2, 2)).containsExactly(3L);
+        assertThat(index.searchAfter("дрель", 1, 10)).containsExactly(3L);
+    }
+
+    @Test
+    void indexShouldReplaceEditedItem() {
+        index.index(item(1L, "Перфоратор", "имеет ударный режим", true));
+        index.index(item(4L, "Старая дрель", "без аккумулятора", true));
+
+        assertThat(index.search("дрель", false, pageable)).containsExactly(3L, 4L);
+        assertThat(index.search("перфоратор", false, pageable)).containsExactly(1L);
+    }
+
+    @Test
+    void rebuildShouldRecordMetrics() {
+        assertThat(meterRegistry.get("shareit.search.index.items").gauge().value()).isEqualTo(4);
+        assertThat(meterRegistry.get("shareit.search.index.rebuild").timer().count()).isEqualTo(1);
+    }
+
+    private static Item item(long id, String name, String description, boolean available) {
+        return Item.builder().id(id).name(name).description(description).available(available).build();
+    }
+}
@@ -5,8 +5,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import ru.practicum.shareit.exception.NotFoundException;
@@ -15,6 +15,7 @@ import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.Request;
 import ru.practicum.shareit.request.repository.RequestRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserView;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.ArrayList;
@@ -75,7 +76,7 @@ public class RequestServiceImplTest {
 
     @Test
     void createRequestWithValidInputsShouldReturnsRequest() {
-        when(userRepository.findById(any())).thenReturn(Optional.of(requester));
+        when(userRepository.findViewById(anyLong())).thenReturn(Optional.of(view(requester)));
         when(requestRepository.save(any()))
                 .then(invocation -> invocation.<Request>getArgument(0).setId(1L));
 
@@ -88,7 +89,7 @@ public class RequestServiceImplTest {
 
     @Test
     void createRequestWithNonExistingUserShouldThrowsNotFoundException() {
-        when(userRepository.findById(3L)).thenReturn(Optional.empty());
+        when(userRepository.findViewById(3L)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(
                 NotFoundException.class,
@@ -101,7 +102,7 @@ public class RequestServiceImplTest {
     @Test
     void getByIdWithValidInputsShouldReturnsRequest() {
         when(requestRepository.findById(anyLong())).thenReturn(Optional.of(request));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(requester));
+        when(userRepository.findViewById(anyLong())).thenReturn(Optional.of(view(requester)));
         when(itemRepository.findAllByRequestInOrderByIdAsc(any()))
                 .thenReturn(List.of(Item.builder().requestId(1L).build()));
 
@@ -113,7 +114,7 @@ public class RequestServiceImplTest {
 
     @Test
     void getRequestByIdWithValidInputsShouldReturnsRequest() {
-        when(userRepository.findById(requester.getId())).thenReturn(Optional.of(requester));
+        when(userRepository.findViewById(requester.getId())).thenReturn(Optional.of(view(requester)));
         when(requestRepository.findById(request.getId())).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(
@@ -126,9 +127,9 @@ public class RequestServiceImplTest {
 
     @Test
     void getAllForUserWithValidInputsShouldReturnsRequests() {
-        Page<Request> requestsPage = new PageImpl<>(requests);
-        when(userRepository.findById(requester.getId())).thenReturn(Optional.of(requester));
-        when(requestRepository.findAllByRequester(any(), any())).thenReturn(requestsPage);
+        Slice<Request> requestsSlice = new SliceImpl<>(requests);
+        when(userRepository.findViewById(requester.getId())).thenReturn(Optional.of(view(requester)));
+        when(requestRepository.findAllByRequester(any(), any())).thenReturn(requestsSlice);
         when(itemRepository.findAllByRequestInOrderByIdAsc(any()))
                 .thenReturn(List.of(Item.builder().requestId(1L).build()));
 
@@ -140,8 +141,8 @@ public class RequestServiceImplTest {
 
     @Test
     void getAllWithValidInputsShouldReturnsRequests() {
-        Page<Request> requestsPage = new PageImpl<>(requests);
-        when(requestRepository.findAllByRequesterIdNot(any(), any())).thenReturn(requestsPage);
+        Slice<Request> requestsSlice = new SliceImpl<>(requests);
+        when(requestRepository.findAllByRequesterIdNot(any(), any())).thenReturn(requestsSlice);
         when(itemRepository.findAllByRequestInOrderByIdAsc(any()))
                 .thenReturn(List.of(Item.builder().requestId(1L).build()));
 
@@ -150,4 +151,8 @@ public class RequestServiceImplTest {
         assertEquals(result.get(0).getId(), request.getId());
         assertEquals(result.get(0).getDescription(), request.getDescription());
     }
-}
\ No newline at end of file
+
+    private static UserView view(User user) {
+        return new UserView(user.getId(), user.getName(), user.getEmail());
+    }
+}
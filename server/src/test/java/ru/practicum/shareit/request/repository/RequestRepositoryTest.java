@@ -6,6 +6,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.TestDataInitializer;
 import ru.practicum.shareit.request.model.Request;
 
@@ -31,6 +32,15 @@ class RequestRepositoryTest {
         assertThat(result.get(0).getDescription()).contains("I need siphon. Vik");
     }
 
+    @Test
+    void testFindAllByRequesterIdNotAndIdLessThanOrderByIdDesc() {
+        Slice<Request> result = requestRepository.findAllByRequesterIdNotAndIdLessThanOrderByIdDesc(
+                testData.getVik().getId(), Long.MAX_VALUE, PageRequest.of(0, 1));
+
+        assertThat(result.getContent()).extracting(Request::getDescription).containsExactly("I need tomato. Den");
+        assertThat(result.hasNext()).isTrue();
+    }
+
     @Test
     void testFindAllByRequester() {
         List<Request> result = requestRepository.findAllByRequester(testData.getVik(), pageable).toList();
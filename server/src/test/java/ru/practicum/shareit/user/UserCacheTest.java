@@ -0,0 +1,54 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import ru.practicum.shareit.CacheConfig;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class UserCacheTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void editShouldEvictCachedUser() {
+        Cache users = Objects.requireNonNull(cacheManager.getCache(CacheConfig.USERS));
+        User user = userService.add(User.builder().name("Cache").email("cache@mail.ru").build());
+
+        userRepository.findViewById(user.getId());
+        assertThat(users.get(user.getId())).isNotNull();
+
+        userService.edit(user.getId(), User.builder().name("Evicted").build());
+        assertThat(users.get(user.getId())).isNull();
+        assertThat(userService.getById(user.getId()).getName()).isEqualTo("Evicted");
+    }
+
+    @Test
+    void findViewByIdShouldNotCacheMissingUser() {
+        Cache users = Objects.requireNonNull(cacheManager.getCache(CacheConfig.USERS));
+
+        assertThat(userRepository.findViewById(999L)).isEmpty();
+        assertThat(users.get(999L)).isNull();
+    }
+
+    @Test
+    void changesToReturnedUserShouldNotReachCache() {
+        User user = userService.add(User.builder().name("Shared").email("shared@mail.ru").build());
+
+        userService.getById(user.getId()).setName("Changed");
+
+        assertThat(userService.getById(user.getId()).getName()).isEqualTo("Shared");
+    }
+}
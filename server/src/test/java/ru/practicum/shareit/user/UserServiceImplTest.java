@@ -8,6 +8,7 @@ import org.mockito.Mock;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserView;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.ArrayList;
@@ -131,7 +132,7 @@ public class UserServiceImplTest {
 
     @Test
     void getUserByIdWithValidInputsShouldReturnsUser() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userRepository.findViewById(anyLong())).thenReturn(Optional.of(view(user)));
 
         User result = userService.getById(1L);
 
@@ -155,4 +156,8 @@ public class UserServiceImplTest {
     void deleteByUserId() {
         userRepository.deleteById(anyLong());
     }
-}
\ No newline at end of file
+
+    private static UserView view(User user) {
+        return new UserView(user.getId(), user.getName(), user.getEmail());
+    }
+}